@@ -47,7 +47,8 @@ public class AIAgentController implements Initializable {
 
     private String currentUsername;
     private AIService aiService;
-    private List<com.example.chronopanthers.Task> userTasks;
+    // Replaced from background threads, read by the AI tasks
+    private volatile List<com.example.chronopanthers.Task> userTasks = List.of();
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -164,7 +165,7 @@ public class AIAgentController implements Initializable {
 
     private void loadUserTasks() {
         if (currentUsername != null) {
-            userTasks = TaskDatabaseManager.getUserTasks(currentUsername);
+            AsyncDatabase.onFx(UserSession.getUserTasks(currentUsername), tasks -> userTasks = tasks);
             //System.out.println("Loaded " + userTasks.size() + " tasks for AI analysis");
         }
     }
@@ -227,26 +228,27 @@ public class AIAgentController implements Initializable {
             return;
         }
 
-        loadUserTasks(); // Refresh tasks
-
-        if (userTasks.isEmpty()) {
-            appendToChatHistory("📋 Task Analysis",
-                    "You don't have any tasks yet. Would you like me to help you create some tasks or set up a study plan?", false);
-            return;
-        }
-
         setUILoading(true);
 
         Task<String> analysisTask = new Task<String>() {
             @Override
             protected String call() throws Exception {
+                userTasks = TaskDatabaseManager.getUserTasks(currentUsername); // Refresh tasks
+                if (userTasks.isEmpty()) {
+                    return null;
+                }
                 return aiService.analyzeTasksAndPriorities(userTasks, currentUsername);
             }
 
             @Override
             protected void succeeded() {
                 Platform.runLater(() -> {
-                    appendToChatHistory("📊 Task Analysis", getValue(), false);
+                    if (getValue() == null) {
+                        appendToChatHistory("📋 Task Analysis",
+                                "You don't have any tasks yet. Would you like me to help you create some tasks or set up a study plan?", false);
+                    } else {
+                        appendToChatHistory("📊 Task Analysis", getValue(), false);
+                    }
                     setUILoading(false);
                 });
             }
@@ -272,12 +274,12 @@ public class AIAgentController implements Initializable {
             return;
         }
 
-        loadUserTasks(); // Refresh tasks
         setUILoading(true);
 
         Task<String> studyPlanTask = new Task<String>() {
             @Override
             protected String call() throws Exception {
+                userTasks = TaskDatabaseManager.getUserTasks(currentUsername); // Refresh tasks
                 return aiService.createStudyPlan(userTasks, currentUsername);
             }
 
@@ -377,7 +379,7 @@ public class AIAgentController implements Initializable {
         alert.setContentText("Have you completed all your work?");
 
         if (alert.showAndWait().get() == ButtonType.OK) {
-            TimerManager.getInstance().reset();
+            UserSession.logout();
 
             try {
                 Parent root = FXMLLoader.load(getClass().getResource("loginPage.fxml"));
@@ -51,7 +51,7 @@ public class AIService {
 
     public String getStudyFocusResponse(String userMessage, String username, List<Task> userTasks) throws IOException, InterruptedException {
         // Check if user wants to add a task
-        TaskAddResult taskResult = checkAndAddTask(userMessage, username);
+        TaskAddResult taskResult = checkAndAddTask(userMessage, username, userTasks);
         if (taskResult.wasTaskAdded) {
             return taskResult.response;
         }
@@ -90,7 +90,7 @@ public class AIService {
                         "Current tasks:\n%s\n\n" +
                         "Today's date: %s\n\n" +
                         "Provide actionable, specific advice for managing these tasks effectively.",
-                username, taskSummary, LocalDate.now().format(DateTimeFormatter.ofPattern("MMMM d, yyyy"))
+                username, taskSummary, DayClock.today().format(DateTimeFormatter.ofPattern("MMMM d, yyyy"))
         );
 
         return makeAIRequest(prompt, createStudyFocusSystemPrompt(username, tasks));
@@ -110,7 +110,7 @@ public class AIService {
                         "7. Study techniques for different task types\n\n" +
                         "Today's date: %s\n" +
                         "Make it practical, realistic, and motivating!",
-                username, taskSummary, LocalDate.now().format(DateTimeFormatter.ofPattern("MMMM d, yyyy"))
+                username, taskSummary, DayClock.today().format(DateTimeFormatter.ofPattern("MMMM d, yyyy"))
         );
 
         return makeAIRequest(prompt, createStudyPlanSystemPrompt());
@@ -203,7 +203,7 @@ public class AIService {
         }
 
         StringBuilder sb = new StringBuilder();
-        LocalDate today = LocalDate.now();
+        LocalDate today = DayClock.today();
 
         sb.append("=== TASK SUMMARY ===\n");
         sb.append("Total tasks: ").append(tasks.size()).append("\n");
@@ -307,7 +307,7 @@ public class AIService {
                         "- Study/work-life balance\n" +
                         "- Stress management and burnout prevention",
 
-                username, username, tasks.size(), LocalDate.now().format(DateTimeFormatter.ofPattern("MMMM d, yyyy"))
+                username, username, tasks.size(), DayClock.today().format(DateTimeFormatter.ofPattern("MMMM d, yyyy"))
         );
     }
 
@@ -353,7 +353,7 @@ public class AIService {
         }
     }
 
-    private TaskAddResult checkAndAddTask(String userMessage, String username) {
+    private TaskAddResult checkAndAddTask(String userMessage, String username, List<Task> userTasks) {
         // Pattern to match: "add task: [task name]" with optional date
         Pattern patternWithDate = Pattern.compile("add task:\\s*([^,]+),\\s*(.+)", Pattern.CASE_INSENSITIVE);
         Pattern patternWithoutDate = Pattern.compile("add task:\\s*(.+)", Pattern.CASE_INSENSITIVE);
@@ -425,12 +425,13 @@ public class AIService {
         }
 
         // Add the task to database
+        String similar = similarTasks(userTasks, taskName);
         boolean success = TaskDatabaseManager.addTask(username, newTask);
 
         if (success) {
             if (deadline != null) {
                 // Deadline task success message
-                long daysUntilDue = ChronoUnit.DAYS.between(LocalDate.now(), deadline);
+                long daysUntilDue = ChronoUnit.DAYS.between(DayClock.today(), deadline);
                 String urgencyText = getUrgencyText(daysUntilDue);
 
                 return new TaskAddResult(true,
@@ -440,7 +441,7 @@ public class AIService {
                                 "• **Deadline:** " + deadline.format(DateTimeFormatter.ofPattern("MMMM d, yyyy")) + "\n" +
                                 "• **Priority:** " + priority + " " + urgencyText + "\n" +
                                 "• **Days until due:** " + daysUntilDue + " days\n\n" +
-                                "The deadline task has been added to your Task Manager successfully! 🎯");
+                                "The deadline task has been added to your Task Manager successfully! 🎯" + similar);
             } else {
                 // Normal task success message
                 return new TaskAddResult(true,
@@ -449,7 +450,7 @@ public class AIService {
                                 "• **Name:** " + taskName + "\n" +
                                 "• **Type:** Normal Task (no deadline)\n" +
                                 "• **Priority:** " + priority + "\n\n" +
-                                "The task has been added to your Task Manager successfully! 📝");
+                                "The task has been added to your Task Manager successfully! 📝" + similar);
             }
         } else {
             // Database error - but this could also be due to task already existing
@@ -471,6 +472,25 @@ public class AIService {
         }
     }
 
+    // Open tasks whose names contain this one or are a typo or two away from it, so near-duplicates get noticed
+    private String similarTasks(List<Task> userTasks, String taskName) {
+        if (userTasks == null || userTasks.isEmpty()) {
+            return "";
+        }
+
+        List<Task> openTasks = userTasks.stream().filter(task -> !task.getIsCompleted()).toList();
+        List<TrigramIndex.Match> matches = TrigramIndex.ofTasks(openTasks).search(taskName);
+        if (matches.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder("\n\n💡 **Similar tasks already in your list:**\n");
+        for (TrigramIndex.Match match : matches.subList(0, Math.min(3, matches.size()))) {
+            sb.append("• ").append(openTasks.get(match.id()).getTaskName()).append("\n");
+        }
+        return sb.toString();
+    }
+
     private LocalDate parseDate(String dateString) {
         // Date Formats Allowed
         String[] patterns = {
@@ -503,7 +523,7 @@ public class AIService {
     }
 
     private Task.Priority calculatePriorityFromDeadline(LocalDate deadline) {
-        long daysUntilDue = ChronoUnit.DAYS.between(LocalDate.now(), deadline);
+        long daysUntilDue = ChronoUnit.DAYS.between(DayClock.today(), deadline);
 
         if (daysUntilDue < 0) {
             return Task.Priority.CRITICAL; // Overdue
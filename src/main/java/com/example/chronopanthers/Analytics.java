@@ -0,0 +1,205 @@
+package com.example.chronopanthers;
+
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+
+// Time series for the Productivity charts over any date range and granularity.
+// Every requested series comes back from one query, with empty buckets filled in as zero by the database.
+public class Analytics {
+
+    public enum Granularity {
+        // Postgres date_trunc unit, SQLite expression for the start of the bucket, SQLite step to the next bucket
+        DAY("day", "date(%s)", "+1 day"),
+        WEEK("week", "date(%s, 'weekday 0', '-6 days')", "+7 days"),
+        MONTH("month", "date(%s, 'start of month')", "+1 month");
+
+        private final String unit;
+        private final String sqliteStart;
+        private final String sqliteStep;
+
+        Granularity(String unit, String sqliteStart, String sqliteStep) {
+            this.unit = unit;
+            this.sqliteStart = sqliteStart;
+            this.sqliteStep = sqliteStep;
+        }
+
+        // Start of the bucket containing the column or parameter, weeks start on Monday in both databases
+        private String bucketOf(String expression, boolean replica) {
+            return replica ? String.format(sqliteStart, expression)
+                    : "date_trunc('" + unit + "', " + expression + ")::date";
+        }
+
+        // The same buckets in Java, for the in-memory store
+        LocalDate bucketOf(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(DayOfWeek.MONDAY);
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+
+        LocalDate nextBucket(LocalDate bucket) {
+            return switch (this) {
+                case DAY -> bucket.plusDays(1);
+                case WEEK -> bucket.plusWeeks(1);
+                case MONTH -> bucket.plusMonths(1);
+            };
+        }
+    }
+
+    public enum Metric {
+        SESSIONS, MINUTES, TASKS_COMPLETED
+    }
+
+    // One line on a chart, sessionType is "work" or "break" for the session metrics and null for tasks
+    public record Series(Metric metric, String sessionType) {
+        public static Series sessions(String sessionType) {
+            return new Series(Metric.SESSIONS, sessionType);
+        }
+
+        public static Series minutes(String sessionType) {
+            return new Series(Metric.MINUTES, sessionType);
+        }
+
+        public static Series tasksCompleted() {
+            return new Series(Metric.TASKS_COMPLETED, null);
+        }
+    }
+
+    // Values per bucket start for each series, from and to are inclusive and every bucket in between is present.
+    // Series already in the AnalyticsCache are not queried again.
+    public static Map<Series, Map<LocalDate, Integer>> getSeries(String username, LocalDate from, LocalDate to,
+                                                                 Granularity granularity, List<Series> series) {
+        Map<Series, Map<LocalDate, Integer>> cached = AnalyticsCache.get(username, from, to, granularity, series);
+        List<Series> missing = new ArrayList<>();
+        for (Series s : series) {
+            if (!cached.containsKey(s)) {
+                missing.add(s);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long generation = AnalyticsCache.generation();
+            Map<Series, Map<LocalDate, Integer>> loaded = load(username, from, to, granularity, missing);
+            AnalyticsCache.put(generation, username, from, to, granularity, loaded);
+            cached.putAll(loaded);
+        }
+
+        // Keep the order the caller asked for
+        Map<Series, Map<LocalDate, Integer>> result = new LinkedHashMap<>();
+        for (Series s : series) {
+            if (cached.containsKey(s)) {
+                result.put(s, cached.get(s));
+            }
+        }
+        return result;
+    }
+
+    private static Map<Series, Map<LocalDate, Integer>> load(String username, LocalDate from, LocalDate to,
+                                                             Granularity granularity, List<Series> series) {
+        return Repositories.sessions().getSeries(username, from, to, granularity, series);
+    }
+
+    // Shared by Supabase and the SQLite stores, only the bucket expressions and the session source differ
+    static Map<Series, Map<LocalDate, Integer>> query(Connection conn, boolean replica, String username, LocalDate from, LocalDate to,
+                                                      Granularity granularity, List<Series> series) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder();
+
+        // Every bucket in the range, this is what fills the gaps
+        if (replica) {
+            String first = granularity.bucketOf("?", true);
+            sql.append("WITH RECURSIVE buckets(bucket) AS (SELECT ").append(first)
+                    .append(" UNION ALL SELECT date(bucket, '").append(granularity.sqliteStep).append("') FROM buckets")
+                    .append(" WHERE date(bucket, '").append(granularity.sqliteStep).append("') <= ").append(granularity.bucketOf("?", true))
+                    .append(")\n");
+        } else {
+            sql.append("WITH buckets AS (SELECT generate_series(").append(granularity.bucketOf("?::date", false)).append(", ")
+                    .append(granularity.bucketOf("?::date", false)).append(", INTERVAL '1 ").append(granularity.unit)
+                    .append("')::date AS bucket)\n");
+        }
+        params.add(from);
+        params.add(to);
+
+        StringBuilder columns = new StringBuilder();
+        StringBuilder sessionColumns = new StringBuilder();
+        List<Object> sessionParams = new ArrayList<>();
+        boolean needsTasks = false;
+
+        for (int i = 0; i < series.size(); i++) {
+            Series s = series.get(i);
+            if (s.metric() == Metric.TASKS_COMPLETED) {
+                columns.append(", COALESCE(t.completed, 0) AS c").append(i);
+                needsTasks = true;
+            } else {
+                String value = s.metric() == Metric.SESSIONS ? "sessions" : "minutes";
+                sessionColumns.append(", SUM(").append(value).append(") FILTER (WHERE session_type = ?) AS c").append(i);
+                sessionParams.add(s.sessionType());
+                columns.append(", COALESCE(s.c").append(i).append(", 0) AS c").append(i);
+            }
+        }
+
+        sql.append("SELECT b.bucket").append(columns).append("\nFROM buckets b\n");
+
+        // Supabase reads the daily rollup, the replica only has the raw session log
+        if (!sessionParams.isEmpty()) {
+            String source = replica
+                    ? "(SELECT session_type, 1 AS sessions, duration AS minutes, created_at AS day FROM sessionslog WHERE username = ? AND created_at >= ? AND created_at < ?)"
+                    : "(SELECT session_type, session_count AS sessions, total_duration AS minutes, day FROM session_daily_rollup WHERE username = ? AND day >= ? AND day < ?)";
+            sql.append("LEFT JOIN (SELECT ").append(granularity.bucketOf("day", replica)).append(" AS bucket")
+                    .append(sessionColumns).append(" FROM ").append(source).append(" r GROUP BY 1) s ON s.bucket = b.bucket\n");
+            params.addAll(sessionParams);
+            params.add(username);
+            params.add(from);
+            params.add(to.plusDays(1));
+        }
+
+        // On Supabase old completions live in tasks_archive, the SQLite stores keep everything in tasks
+        if (needsTasks) {
+            boolean archive = !replica && TaskArchive.isAvailable();
+            String completed = "SELECT updated_at FROM %s WHERE username = ? AND is_completed = TRUE AND updated_at >= ? AND updated_at < ?";
+            String source = !archive
+                    ? "(" + completed.formatted("tasks") + ")"
+                    : "(" + completed.formatted("tasks") + " UNION ALL " + completed.formatted("tasks_archive") + ")";
+            sql.append("LEFT JOIN (SELECT ").append(granularity.bucketOf("updated_at", replica)).append(" AS bucket, COUNT(*) AS completed")
+                    .append(" FROM ").append(source).append(" d GROUP BY 1) t")
+                    .append(" ON t.bucket = b.bucket\n");
+            for (int i = archive ? 2 : 1; i > 0; i--) {
+                params.add(username);
+                params.add(from);
+                params.add(to.plusDays(1));
+            }
+        }
+
+        sql.append("ORDER BY b.bucket");
+
+        Map<Series, Map<LocalDate, Integer>> result = new LinkedHashMap<>();
+        for (Series s : series) {
+            result.put(s, new LinkedHashMap<>());
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                Object param = params.get(i);
+                // The replica stores dates as ISO text
+                if (replica && param instanceof LocalDate date) {
+                    stmt.setString(i + 1, date.toString());
+                } else {
+                    stmt.setObject(i + 1, param);
+                }
+            }
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                LocalDate bucket = LocalDate.parse(rs.getString("bucket"));
+                for (int i = 0; i < series.size(); i++) {
+                    result.get(series.get(i)).put(bucket, rs.getInt("c" + i));
+                }
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.chronopanthers;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// Recently loaded chart series, so switching between the weekly, monthly and yearly views does not query again.
+// Entries expire after a few minutes and are dropped as soon as a write that changes them is committed.
+public class AnalyticsCache {
+    private static final long TTL_MS = 5 * 60_000;
+    private static final int MAX_ENTRIES = 100;
+
+    private record Key(String username, Analytics.Series series, LocalDate from, LocalDate to, Analytics.Granularity granularity) {}
+
+    private record Entry(Map<LocalDate, Integer> values, long loadedAt) {}
+
+    // Access order, so the least recently used entry is evicted first once the cache is full
+    private static final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    // Bumped by every invalidation, a load that started before it must not be stored
+    private static long generation = 0;
+
+    public static synchronized long generation() {
+        return generation;
+    }
+
+    // Cached values for the series that are present and fresh, missing series are left out
+    public static synchronized Map<Analytics.Series, Map<LocalDate, Integer>> get(String username, LocalDate from, LocalDate to,
+                                                                                  Analytics.Granularity granularity, List<Analytics.Series> series) {
+        Map<Analytics.Series, Map<LocalDate, Integer>> found = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+
+        for (Analytics.Series s : series) {
+            Key key = new Key(username, s, from, to, granularity);
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                continue;
+            }
+            if (now - entry.loadedAt() > TTL_MS) {
+                entries.remove(key);
+            } else {
+                found.put(s, entry.values());
+            }
+        }
+
+        return found;
+    }
+
+    public static synchronized void put(long loadedInGeneration, String username, LocalDate from, LocalDate to,
+                                        Analytics.Granularity granularity, Map<Analytics.Series, Map<LocalDate, Integer>> loaded) {
+        if (loadedInGeneration != generation) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        loaded.forEach((s, values) -> entries.put(new Key(username, s, from, to, granularity),
+                new Entry(Collections.unmodifiableMap(new LinkedHashMap<>(values)), now)));
+    }
+
+    // A work or break session was logged
+    public static synchronized void invalidateSessions(String username, String sessionType) {
+        generation++;
+        entries.keySet().removeIf(key -> key.username().equals(username)
+                && key.series().metric() != Analytics.Metric.TASKS_COMPLETED
+                && sessionType.equals(key.series().sessionType()));
+    }
+
+    // A task was completed, reopened or deleted
+    public static synchronized void invalidateTasks(String username) {
+        generation++;
+        entries.keySet().removeIf(key -> key.username().equals(username)
+                && key.series().metric() == Analytics.Metric.TASKS_COMPLETED);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.chronopanthers;
+
+import javafx.application.Platform;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Non-blocking versions of the TaskDatabaseManager and SupabaseConnection calls.
+// Every call runs on its own virtual thread, so independent queries run concurrently and the FX thread never waits on the network.
+public class AsyncDatabase {
+    private static final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("db-", 0).factory());
+
+    // Hands a continuation back to the JavaFX Application Thread
+    public static final Executor FX_THREAD = Platform::runLater;
+
+    public static <T> CompletableFuture<T> supply(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, executor);
+    }
+
+    public static CompletableFuture<Void> run(Runnable work) {
+        return CompletableFuture.runAsync(work, executor);
+    }
+
+    // Deliver the result on the FX thread, failures are logged instead of being swallowed by the future
+    public static <T> CompletableFuture<Void> onFx(CompletableFuture<T> future, Consumer<T> callback) {
+        return future.thenAcceptAsync(callback, FX_THREAD)
+                .exceptionally(e -> {
+                    System.err.println("Background database call failed: " + e.getMessage());
+                    return null;
+                });
+    }
+
+    // Login
+    public static CompletableFuture<Boolean> isDbConnected(LoginModel model) {
+        return supply(model::isDbConnected);
+    }
+
+    public static CompletableFuture<Boolean> isLogin(LoginModel model, String username, String password) {
+        return supply(() -> model.isLogin(username, password));
+    }
+
+    public static CompletableFuture<Boolean> isSignUp(LoginModel model, String username, String password) {
+        return supply(() -> model.isSignUp(username, password));
+    }
+
+    // Tasks
+    public static CompletableFuture<Boolean> addTask(String username, Task task) {
+        return supply(() -> TaskDatabaseManager.addTask(username, task));
+    }
+
+    public static CompletableFuture<Boolean> taskExists(String username, String taskName) {
+        return supply(() -> TaskDatabaseManager.taskExists(username, taskName));
+    }
+
+    public static CompletableFuture<List<Task>> getUserTasks(String username) {
+        return supply(() -> TaskDatabaseManager.getUserTasks(username));
+    }
+
+    public static CompletableFuture<TaskDashboard> getTaskDashboard(String username, int pageSize) {
+        return supply(() -> TaskDatabaseManager.getTaskDashboard(username, pageSize));
+    }
+
+    public static CompletableFuture<TaskPage> getUserTasksPage(String username, TaskPage.Cursor after, int pageSize) {
+        return supply(() -> TaskDatabaseManager.getUserTasksPage(username, after, pageSize));
+    }
+
+    public static CompletableFuture<Boolean> updateTaskCompletion(String username, Task task, boolean completed) {
+        return supply(() -> TaskDatabaseManager.updateTaskCompletion(username, task, completed));
+    }
+
+    public static CompletableFuture<Boolean> updateTask(String username, Task original, Task edited) {
+        return supply(() -> TaskDatabaseManager.updateTask(username, original, edited));
+    }
+
+    public static CompletableFuture<Boolean> deleteTask(String username, Task task) {
+        return supply(() -> TaskDatabaseManager.deleteTask(username, task));
+    }
+
+    public static CompletableFuture<Integer> getUserTaskCount(String username) {
+        return supply(() -> TaskDatabaseManager.getUserTaskCount(username));
+    }
+
+    public static CompletableFuture<Integer> getUserCompletedTaskCount(String username) {
+        return supply(() -> TaskDatabaseManager.getUserCompletedTaskCount(username));
+    }
+
+    public static CompletableFuture<List<Task>> getOverdueTasks(String username) {
+        return supply(() -> TaskDatabaseManager.getOverdueTasks(username));
+    }
+
+    public static CompletableFuture<Boolean> testConnection() {
+        return supply(TaskDatabaseManager::testConnection);
+    }
+
+    // Sessions
+    public static CompletableFuture<int[]> recordSession(String username, String sessionType, int duration) {
+        return supply(() -> SupabaseConnection.recordSession(username, sessionType, duration));
+    }
+
+    public static CompletableFuture<int[]> getSessionCounts(String username) {
+        return supply(() -> SupabaseConnection.getSessionCounts(username));
+    }
+
+    // Productivity charts
+    public static CompletableFuture<Map<Analytics.Series, Map<LocalDate, Integer>>> getSeries(
+            String username, LocalDate from, LocalDate to, Analytics.Granularity granularity, List<Analytics.Series> series) {
+        return supply(() -> Analytics.getSeries(username, from, to, granularity, series));
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.chronopanthers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+// Live changes made on other devices (and echoes of our own writes), pushed by the triggers from schema migration 5.
+// One dedicated connection LISTENs on the logged-in user's channel. Deltas are applied to the local replica and
+// the analytics cache here, then handed to the visible page on the FX thread.
+public class ChangeFeed {
+    private static final int POLL_TIMEOUT_MS = 10_000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    public enum Kind {
+        UPSERT, DELETE, REFRESH
+    }
+
+    // task and createdAt are null for REFRESH, which means the deltas were too large or some were missed
+    public record TaskChange(Kind kind, Task task, LocalDateTime createdAt) {}
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static volatile String currentUsername;
+    private static Thread listenerThread;
+
+    // Only the page on screen listens, NavigationController clears these on every switch
+    private static volatile Consumer<List<TaskChange>> taskListener;
+    private static volatile Runnable chartListener;
+
+    // Start (or move) the feed to this user
+    public static synchronized void start(String username) {
+        currentUsername = username;
+        if (listenerThread == null) {
+            listenerThread = new Thread(ChangeFeed::listenLoop, "change-feed");
+            listenerThread.setDaemon(true);
+            listenerThread.start();
+        }
+    }
+
+    public static void setTaskListener(Consumer<List<TaskChange>> listener) {
+        taskListener = listener;
+    }
+
+    public static void setChartListener(Runnable listener) {
+        chartListener = listener;
+    }
+
+    public static void clearListeners() {
+        taskListener = null;
+        chartListener = null;
+    }
+
+    private static void listenLoop() {
+        long backoff = 1_000;
+        boolean reconnecting = false;
+
+        while (true) {
+            String username = currentUsername;
+            try (Connection conn = DriverManager.getConnection(DatabaseConfig.getJdbcUrl());
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("LISTEN " + channelOf(username));
+                backoff = 1_000;
+
+                // Anything committed while we were not listening is only visible through a full sync
+                if (reconnecting) {
+                    LocalReplica.requestSync(username);
+                    dispatch(username, List.of(new TaskChange(Kind.REFRESH, null, null)));
+                }
+                reconnecting = true;
+
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                while (username.equals(currentUsername)) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(username, notification.getParameter());
+                    }
+                }
+                reconnecting = false; // the user changed, the new one starts fresh
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("Change feed disconnected, retrying in " + backoff / 1000 + "s: " + e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private static void handle(String username, String payload) {
+        try {
+            JsonNode json = mapper.readTree(payload);
+            String op = json.path("op").asText();
+
+            if (json.path("source").asText().equals("sessions")) {
+                if (op.equals("REFRESH")) {
+                    LocalReplica.requestSync(username);
+                    AnalyticsCache.invalidateSessions(username, "work");
+                    AnalyticsCache.invalidateSessions(username, "break");
+                } else {
+                    for (JsonNode row : json.path("rows")) {
+                        String sessionType = row.path("session_type").asText();
+                        LocalReplica.applySessionLogged(username, row.path("id").asLong(), sessionType, row.path("duration").asInt(), row.path("created_at").asText());
+                        AnalyticsCache.invalidateSessions(username, sessionType);
+                    }
+                }
+                UserSession.invalidateSessionCounts(username);
+                dispatch(username, List.of());
+                return;
+            }
+
+            Kind kind = Kind.valueOf(op);
+            List<TaskChange> changes = new ArrayList<>();
+            if (kind == Kind.REFRESH) {
+                LocalReplica.requestSync(username);
+                changes.add(new TaskChange(Kind.REFRESH, null, null));
+            } else {
+                for (JsonNode row : json.path("rows")) {
+                    changes.add(new TaskChange(kind, toTask(row), LocalDateTime.parse(row.path("created_at").asText())));
+                }
+                LocalReplica.applyTaskChanges(username, changes);
+            }
+            AnalyticsCache.invalidateTasks(username);
+            UserSession.invalidateTasks(username);
+            dispatch(username, changes);
+        } catch (Exception e) {
+            System.err.println("Error applying change feed event: " + e.getMessage());
+        }
+    }
+
+    // Every change can move a chart, only task changes go to the task list
+    private static void dispatch(String username, List<TaskChange> changes) {
+        AsyncDatabase.FX_THREAD.execute(() -> {
+            if (!username.equals(currentUsername)) {
+                return;
+            }
+            Consumer<List<TaskChange>> tasks = taskListener;
+            Runnable charts = chartListener;
+            if (tasks != null && !changes.isEmpty()) {
+                tasks.accept(changes);
+            }
+            if (charts != null) {
+                charts.run();
+            }
+        });
+    }
+
+    private static Task toTask(JsonNode row) {
+        String taskName = row.path("task_name").asText();
+        Task.Priority priority = Task.Priority.valueOf(row.path("priority").asText());
+        JsonNode dueDate = row.path("due_date");
+
+        Task task;
+        if ("Deadline".equals(row.path("task_type").asText()) && !dueDate.isNull() && !dueDate.isMissingNode()) {
+            task = new DeadlineTask(taskName, LocalDate.parse(dueDate.asText()), priority);
+        } else {
+            task = new NormalTask(taskName, priority);
+        }
+        if (row.path("is_completed").asBoolean()) {
+            task.complete();
+        }
+        task.setId(row.path("id").asLong());
+        JsonNode clientKey = row.path("client_key");
+        if (clientKey.isTextual()) {
+            task.setClientKey(UUID.fromString(clientKey.asText()));
+        }
+        return task;
+    }
+
+    // Same name as the triggers use: 'feed_' || md5(username)
+    private static String channelOf(String username) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(username.getBytes(StandardCharsets.UTF_8));
+            return "feed_" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
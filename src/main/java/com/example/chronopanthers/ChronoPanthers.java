@@ -12,6 +12,8 @@ import java.io.IOException;
 public class ChronoPanthers extends Application {
     @Override
     public void start(Stage stage) throws IOException {
+        FxWatchdog.start();
+
         FXMLLoader fxmlLoader = new FXMLLoader(ChronoPanthers.class.getResource("loginPage.fxml"));
         Parent root = fxmlLoader.load();
         Scene scene = new Scene(root);
@@ -21,7 +23,8 @@ public class ChronoPanthers extends Application {
         stage.setResizable(false);
         stage.show();
 
-        // Test
+        // Open the storage backend (for Supabase, bring the schema and indexes up to date) without holding up the login page
+        AsyncDatabase.run(() -> Repositories.tasks().open());
     }
 
     public static void main(String[] args) {
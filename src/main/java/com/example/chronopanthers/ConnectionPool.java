@@ -0,0 +1,332 @@
+package com.example.chronopanthers;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Shared pool of physical connections to Supabase so each query does not pay a new TCP + TLS + auth handshake.
+// Writes use the primary pool. Listing and analytics reads use the read replica pool when one is configured.
+public class ConnectionPool {
+    private static final int MIN_SIZE = 2;
+    private static final int MAX_SIZE = 10;
+    private static final long BORROW_TIMEOUT_MS = 10_000;
+    private static final long IDLE_TIMEOUT_MS = 5 * 60_000;
+    private static final long VALIDATE_AFTER_IDLE_MS = 5_000; // skip the validation round trip for recently used connections
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long LEAK_THRESHOLD_MS = 60_000;
+    private static final long HOUSEKEEPING_PERIOD_MS = 30_000;
+    // How long a user's reads stay on the primary after one of their writes, covers the replica's lag
+    private static final long READ_YOUR_WRITES_MS = 10_000;
+
+    private static ConnectionPool instance;
+    private static ConnectionPool readInstance;
+    private static final ConcurrentHashMap<String, Long> lastWriteAt = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final String jdbcUrl;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits = new Semaphore(MAX_SIZE, true);
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown = false;
+
+    private ConnectionPool(String name, String jdbcUrl) {
+        this.name = name;
+        this.jdbcUrl = jdbcUrl;
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name + "-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Fill to the minimum size in the background so the first click does not wait for the handshake
+        housekeeper.execute(this::fillToMinimum);
+        housekeeper.scheduleAtFixedRate(this::housekeeping, HOUSEKEEPING_PERIOD_MS, HOUSEKEEPING_PERIOD_MS, TimeUnit.MILLISECONDS);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, name + "-shutdown"));
+    }
+
+    // The primary, every write and anything that must see the latest data
+    public static synchronized ConnectionPool getInstance() {
+        if (instance == null) {
+            loadDriver();
+            instance = new ConnectionPool("connection-pool", DatabaseConfig.getJdbcUrl());
+        }
+        return instance;
+    }
+
+    // The read replica, or the primary when none is configured
+    public static synchronized ConnectionPool getReadInstance() {
+        String replicaUrl = DatabaseConfig.getReadReplicaJdbcUrl();
+        if (replicaUrl == null) {
+            return getInstance();
+        }
+        if (readInstance == null) {
+            loadDriver();
+            readInstance = new ConnectionPool("replica-pool", replicaUrl);
+        }
+        return readInstance;
+    }
+
+    private static void loadDriver() {
+        try {
+            Class.forName("org.postgresql.Driver");
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("PostgreSQL driver not found", e);
+        }
+    }
+
+    // Borrow a connection for a read-only query on behalf of the user.
+    // Right after the user's own write, or while the replica is unreachable, the primary answers instead.
+    public static Connection getReadConnection(String username) throws SQLException {
+        ConnectionPool readPool = getReadInstance();
+        Long wroteAt = username == null ? null : lastWriteAt.get(username);
+        if (readPool == getInstance() || wroteAt != null && System.currentTimeMillis() - wroteAt < READ_YOUR_WRITES_MS) {
+            return getInstance().getConnection();
+        }
+
+        try {
+            return readPool.getConnection();
+        } catch (SQLException e) {
+            System.err.println("Read replica unavailable, reading from the primary: " + e.getMessage());
+            return getInstance().getConnection();
+        }
+    }
+
+    // Called once a write by the user has been committed on the primary
+    public static void recordWrite(String username) {
+        lastWriteAt.put(username, System.currentTimeMillis());
+    }
+
+    // Borrow a connection, closing it returns it to the pool
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+
+        try {
+            if (!permits.tryAcquire(BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out waiting for a database connection (" + borrowed.size() + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled)) {
+                    break;
+                }
+                discard(pooled);
+            }
+
+            if (pooled == null) {
+                pooled = openConnection();
+            }
+
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowSite = new Exception("Connection borrowed here");
+            pooled.leakReported = false;
+            borrowed.add(pooled);
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(jdbcUrl);
+        totalConnections.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    // Validation on borrow
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - pooled.lastReturnedAt < VALIDATE_AFTER_IDLE_MS) {
+                return true;
+            }
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        borrowed.remove(pooled);
+        pooled.borrowSite = null;
+
+        try {
+            if (pooled.broken || shutdown || pooled.physical.isClosed()) {
+                discard(pooled);
+            } else {
+                // Undo anything a caller may have left behind
+                if (!pooled.physical.getAutoCommit()) {
+                    pooled.physical.rollback();
+                    pooled.physical.setAutoCommit(true);
+                }
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.offerFirst(pooled); // LIFO keeps the warmest connections in use
+            }
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Already unusable, nothing else to do
+        }
+    }
+
+    private void housekeeping() {
+        evictIdle();
+        detectLeaks();
+        fillToMinimum();
+    }
+
+    // Idle eviction, never shrinking below the minimum size
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : idle) {
+            if (totalConnections.get() <= MIN_SIZE) {
+                return;
+            }
+            if (now - pooled.lastReturnedAt > IDLE_TIMEOUT_MS && idle.remove(pooled)) {
+                discard(pooled);
+            }
+        }
+    }
+
+    // Leak detection: report connections that have been borrowed for too long
+    private void detectLeaks() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : borrowed) {
+            Exception site = pooled.borrowSite;
+            if (!pooled.leakReported && site != null && now - pooled.borrowedAt > LEAK_THRESHOLD_MS) {
+                pooled.leakReported = true;
+                System.err.println("Possible connection leak: connection held for " + (now - pooled.borrowedAt) + " ms");
+                site.printStackTrace();
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!shutdown && totalConnections.get() < MIN_SIZE) {
+            try {
+                PooledConnection pooled = openConnection();
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.offerLast(pooled);
+            } catch (SQLException e) {
+                System.err.println(name + " could not open a connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private class PooledConnection {
+        private final Connection physical;
+        private volatile long lastReturnedAt = System.currentTimeMillis();
+        private volatile long borrowedAt;
+        private volatile Exception borrowSite;
+        private volatile boolean leakReported;
+        private volatile boolean broken;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        // Each borrow gets its own proxy so a stale reference cannot use the connection after close()
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Lease(this));
+        }
+    }
+
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed = false;
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooled.physical;
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                // SQLState class 08 is a connection exception, do not hand this connection out again
+                if (cause instanceof SQLException sqlException
+                        && sqlException.getSQLState() != null
+                        && sqlException.getSQLState().startsWith("08")) {
+                    pooled.broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+}
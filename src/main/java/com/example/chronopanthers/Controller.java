@@ -19,7 +19,6 @@ import javafx.stage.Stage;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
-import static com.example.chronopanthers.SupabaseConnection.*;
 
 public class Controller implements Initializable {
     @FXML
@@ -78,8 +77,9 @@ public class Controller implements Initializable {
                         breakSessionsDisplay.setText(String.valueOf(breakSessions));
                     }
                     if (currentUsername != null) {
-                        updateBreakSession(currentUsername);
-                        logBreakSession(currentUsername, manager.breakTime / 60);
+                        String username = currentUsername;
+                        int duration = manager.breakTime / 60;
+                        AsyncDatabase.onFx(AsyncDatabase.recordSession(username, "break", duration), this::showSessionTotals);
                     }
                 } else {
                     // Just complete work, now break time!
@@ -88,8 +88,9 @@ public class Controller implements Initializable {
                         workSessionsDisplay.setText(String.valueOf(workSessions));
                     }
                     if (currentUsername != null) {
-                        updateWorkSession(currentUsername);
-                        logWorkSession(currentUsername, manager.workTime / 60);
+                        String username = currentUsername;
+                        int duration = manager.workTime / 60;
+                        AsyncDatabase.onFx(AsyncDatabase.recordSession(username, "work", duration), this::showSessionTotals);
                     }
                 }
             });
@@ -200,16 +201,28 @@ public class Controller implements Initializable {
         isControllerActive = false;
     }
 
-    private void loadSessionCounts() {
-        if (currentUsername != null) {
-            int[] counts = SupabaseConnection.getSessionCounts(currentUsername);
-            workSessions = counts[0];
-            breakSessions = counts[1];
+    // Totals after recording a session, these include sessions finished on other devices.
+    // Counters only grow, so a total that does not yet include a still-queued session is ignored
+    private void showSessionTotals(int[] totals) {
+        workSessions = Math.max(workSessions, totals[0]);
+        breakSessions = Math.max(breakSessions, totals[1]);
+        if (isControllerActive) {
             workSessionsDisplay.setText(String.valueOf(workSessions));
             breakSessionsDisplay.setText(String.valueOf(breakSessions));
         }
     }
 
+    private void loadSessionCounts() {
+        if (currentUsername != null) {
+            AsyncDatabase.onFx(UserSession.getSessionCounts(currentUsername), counts -> {
+                workSessions = counts[0];
+                breakSessions = counts[1];
+                workSessionsDisplay.setText(String.valueOf(workSessions));
+                breakSessionsDisplay.setText(String.valueOf(breakSessions));
+            });
+        }
+    }
+
     public void updateDisplay(int timeLeft) {
         if (timerDisplay != null) {
             int minutes = timeLeft / 60;
@@ -250,7 +263,7 @@ public class Controller implements Initializable {
         alert.setContentText("Have you completed all your work?");
 
         if (alert.showAndWait().get() == ButtonType.OK) {
-            TimerManager.getInstance().reset();
+            UserSession.logout();
 
             try {
                 Parent root = FXMLLoader.load(getClass().getResource("loginPage.fxml"));
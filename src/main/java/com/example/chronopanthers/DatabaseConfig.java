@@ -1,39 +1,83 @@
 package com.example.chronopanthers;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Scanner;
 
 public class DatabaseConfig {
-    private static final String JDBC_URI = loadJdbcUriFromEnv();
+    private static String jdbcUri; // loaded on first use, the sqlite and memory backends never need it
+    // Optional, read-only listing and analytics queries go here when it is set
+    private static final String READ_REPLICA_JDBC_URI = loadFromEnv("SUPABASE_READ_REPLICA_JDBC_URI");
+    // Which Repositories backend to use: postgres (default), sqlite or memory
+    private static final String BACKEND = loadFromEnv("CHRONOPANTHERS_BACKEND");
+    // Database file for the sqlite backend
+    private static final String SQLITE_PATH = loadFromEnv("CHRONOPANTHERS_SQLITE_PATH");
+    // Completed tasks older than this many days move to tasks_archive at login. Off (0) unless set
+    private static final String ARCHIVE_AFTER_DAYS = loadFromEnv("CHRONOPANTHERS_ARCHIVE_AFTER_DAYS");
 
     private static String loadJdbcUriFromEnv() {
+        String uri = loadFromEnv("SUPABASE_JDBC_URI");
+        if (uri != null) {
+            return uri;
+        }
+
+        System.err.println("SUPABASE_JDBC_URI not found in .env file or environment variables!");
+        System.err.println("Please create a .env file with: SUPABASE_JDBC_URI=your_database_url");
+        throw new RuntimeException("Database configuration not found");
+    }
+
+    // The .env file on the classpath first, then the system environment, null when neither has the key
+    private static String loadFromEnv(String key) {
         try (Scanner scanner = new Scanner(DatabaseConfig.class.getClassLoader().getResourceAsStream(".env"))) {
             while (scanner.hasNextLine()) {
                 String line = scanner.nextLine().trim();
 
-                if (line.startsWith("SUPABASE_JDBC_URI=")) {
-                    String uri = line.substring("SUPABASE_JDBC_URI=".length());
+                if (line.startsWith(key + "=")) {
+                    String uri = line.substring(key.length() + 1);
                     //System.out.println("✓ Loaded JDBC URI from .env file");
-                    return uri;
+                    return uri.isBlank() ? null : uri;
                 }
             }
         } catch (Exception e) {
             System.out.println("⚠ .env file not found, trying system environment variable");
         }
 
-        String envUri = System.getenv("SUPABASE_JDBC_URI");
-        if (envUri != null) {
+        String envUri = System.getenv(key);
+        if (envUri != null && !envUri.isBlank()) {
             //System.out.println("✓ Loaded JDBC URI from system environment");
             return envUri;
         }
+        return null;
+    }
 
-        System.err.println("SUPABASE_JDBC_URI not found in .env file or environment variables!");
-        System.err.println("Please create a .env file with: SUPABASE_JDBC_URI=your_database_url");
-        throw new RuntimeException("Database configuration not found");
+    public static synchronized String getJdbcUrl() {
+        if (jdbcUri == null) {
+            jdbcUri = loadJdbcUriFromEnv();
+        }
+        return jdbcUri;
     }
 
-    public static String getJdbcUrl() {
-        return JDBC_URI;
+    // Null when no read replica is configured
+    public static String getReadReplicaJdbcUrl() {
+        return READ_REPLICA_JDBC_URI;
+    }
+
+    public static String getBackend() {
+        return BACKEND == null ? "postgres" : BACKEND.trim().toLowerCase();
+    }
+
+    public static String getSqlitePath() {
+        return SQLITE_PATH != null ? SQLITE_PATH
+                : System.getProperty("user.home") + File.separator + ".chronopanthers" + File.separator + "chronopanthers.db";
+    }
+
+    public static int getArchiveAfterDays() {
+        try {
+            return ARCHIVE_AFTER_DAYS == null ? 0 : Integer.parseInt(ARCHIVE_AFTER_DAYS.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid CHRONOPANTHERS_ARCHIVE_AFTER_DAYS, archiving stays off: " + e.getMessage());
+            return 0;
+        }
     }
 }
\ No newline at end of file
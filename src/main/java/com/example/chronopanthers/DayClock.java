@@ -0,0 +1,78 @@
+package com.example.chronopanthers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Today's date, read from the clock once per day instead of a LocalDate.now() time-zone lookup per table cell.
+// A daemon thread moves it on at midnight and tells the page on screen, which re-checks overdue tasks and moves its
+// date ranges in one go. setClock swaps the clock, e.g. Clock.fixed for a repeatable demo or a test.
+public class DayClock {
+    // Also re-read hourly, so sleeping through midnight or a time zone change is caught within the hour
+    private static final Duration MAX_WAIT = Duration.ofHours(1);
+
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "day-clock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile Clock clock = Clock.systemDefaultZone();
+    private static volatile LocalDate today = LocalDate.now(clock);
+    private static ScheduledFuture<?> nextCheck; // guarded by DayClock.class
+
+    // Only the page on screen listens, NavigationController clears this before loading the next one
+    private static volatile Runnable rolloverListener;
+
+    static {
+        schedule();
+    }
+
+    public static LocalDate today() {
+        return today;
+    }
+
+    public static Clock getClock() {
+        return clock;
+    }
+
+    public static synchronized void setClock(Clock newClock) {
+        clock = newClock;
+        check();
+    }
+
+    // Run on the FX thread whenever the date changes
+    public static void setRolloverListener(Runnable listener) {
+        rolloverListener = listener;
+    }
+
+    public static void clearRolloverListener() {
+        rolloverListener = null;
+    }
+
+    // Re-read the date, tell the listener if it moved, and wait for the next midnight
+    private static synchronized void check() {
+        LocalDate now = LocalDate.now(clock);
+        boolean rolledOver = !now.equals(today);
+        today = now;
+        schedule();
+
+        Runnable listener = rolloverListener;
+        if (rolledOver && listener != null) {
+            AsyncDatabase.FX_THREAD.execute(listener);
+        }
+    }
+
+    private static void schedule() {
+        if (nextCheck != null) {
+            nextCheck.cancel(false);
+        }
+        Duration untilMidnight = Duration.between(clock.instant(), today.plusDays(1).atStartOfDay(clock.getZone()));
+        long delay = Math.max(1, Math.min(untilMidnight.toMillis(), MAX_WAIT.toMillis()));
+        nextCheck = timer.schedule(DayClock::check, delay, TimeUnit.MILLISECONDS);
+    }
+}
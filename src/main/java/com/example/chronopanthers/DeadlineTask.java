@@ -5,7 +5,6 @@ import java.time.LocalDate;
 
 public class DeadlineTask extends Task{
     private LocalDate deadline;
-    private boolean isOverdue = false;
 
     public DeadlineTask(String taskName, LocalDate deadline, Priority priority) {
         super(taskName, priority);
@@ -14,8 +13,8 @@ public class DeadlineTask extends Task{
 
     @Override
     public boolean getIsOverdue() {
-        this.isOverdue = LocalDate.now().isAfter(this.deadline) && !this.getIsCompleted();
-        return this.isOverdue;
+        // DayClock's cached date, so rendering the overdue column does no clock or time zone lookups
+        return !this.getIsCompleted() && DayClock.today().isAfter(this.deadline);
     }
 
     @Override
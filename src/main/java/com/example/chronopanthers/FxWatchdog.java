@@ -0,0 +1,62 @@
+package com.example.chronopanthers;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Reports freezes of the JavaFX Application Thread.
+// A ping is queued on the FX thread every few milliseconds, when one waits longer than the threshold
+// the FX thread's stack is printed so the blocking call can be found and moved to AsyncDatabase.
+public class FxWatchdog {
+    private static final long STALL_THRESHOLD_MS = 50;
+    private static final long CHECK_INTERVAL_MS = 20;
+
+    private static Thread fxThread;
+    private static volatile long pingQueuedAt = 0; // 0 while no ping is outstanding
+    private static boolean stallReported = false;  // only touched by the watchdog thread
+
+    private static final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "fx-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Call from the FX thread once the application has started
+    public static synchronized void start() {
+        if (fxThread != null) {
+            return;
+        }
+        fxThread = Thread.currentThread();
+        watchdog.scheduleAtFixedRate(FxWatchdog::check, CHECK_INTERVAL_MS, CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private static void check() {
+        long queuedAt = pingQueuedAt;
+        long now = System.nanoTime();
+
+        if (queuedAt == 0) {
+            pingQueuedAt = now;
+            Platform.runLater(() -> {
+                long waited = (System.nanoTime() - pingQueuedAt) / 1_000_000;
+                pingQueuedAt = 0;
+                if (waited >= STALL_THRESHOLD_MS) {
+                    System.err.println("FX thread was blocked for " + waited + " ms");
+                }
+            });
+            stallReported = false;
+            return;
+        }
+
+        long waited = (now - queuedAt) / 1_000_000;
+        if (waited >= STALL_THRESHOLD_MS && !stallReported) {
+            stallReported = true;
+            StringBuilder dump = new StringBuilder("FX thread blocked for over " + STALL_THRESHOLD_MS + " ms, currently at:");
+            for (StackTraceElement frame : fxThread.getStackTrace()) {
+                dump.append("\n\tat ").append(frame);
+            }
+            System.err.println(dump);
+        }
+    }
+}
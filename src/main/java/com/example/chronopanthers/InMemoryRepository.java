@@ -0,0 +1,267 @@
+package com.example.chronopanthers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Zero-latency backend for tests and benchmarks, nothing survives a restart.
+// Task rows are immutable and swapped with compare-and-set in lock-free skip lists, sessions go on lock-free queues.
+// Only the first write for a new user goes through ConcurrentHashMap's per-bin lock.
+public class InMemoryRepository implements TaskRepository, SessionRepository {
+
+    private record StoredTask(long id, String taskName, String taskType, Task.Priority priority, boolean completed,
+                              LocalDate dueDate, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        Task toTask() {
+            Task task = "Deadline".equals(taskType) && dueDate != null
+                    ? new DeadlineTask(taskName, dueDate, priority)
+                    : new NormalTask(taskName, priority);
+            if (completed) {
+                task.complete();
+            }
+            task.setId(id);
+            return task;
+        }
+
+        StoredTask withCompleted(boolean isCompleted) {
+            return new StoredTask(id, taskName, taskType, priority, isCompleted, dueDate, createdAt, LocalDateTime.now());
+        }
+
+        StoredTask withDetails(Task edited) {
+            return new StoredTask(id, edited.getTaskName(), edited.getTaskType(), edited.getPriority(), completed,
+                    edited.getDeadline(), createdAt, LocalDateTime.now());
+        }
+    }
+
+    private record StoredSession(String sessionType, int duration, LocalDateTime createdAt) {}
+
+    private final AtomicLong nextId = new AtomicLong(1);
+    // Keyed by id, ids only grow, so descending id order is newest first
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<Long, StoredTask>> tasks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentLinkedQueue<StoredSession>> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicIntegerArray> sessionCounts = new ConcurrentHashMap<>(); // {work, break}
+
+    private static <V> V perUser(ConcurrentHashMap<String, V> map, String username, Supplier<V> create) {
+        V value = map.get(username);
+        if (value == null) {
+            V created = create.get();
+            value = map.putIfAbsent(username, created);
+            return value == null ? created : value;
+        }
+        return value;
+    }
+
+    private ConcurrentSkipListMap<Long, StoredTask> tasksOf(String username) {
+        return perUser(tasks, username, ConcurrentSkipListMap::new);
+    }
+
+    // By id, or by name among open tasks for a task without one
+    private StoredTask find(String username, Task task) {
+        ConcurrentSkipListMap<Long, StoredTask> userTasks = tasksOf(username);
+        if (task.getId() > 0) {
+            return userTasks.get(task.getId());
+        }
+        for (StoredTask stored : userTasks.values()) {
+            if (!stored.completed() && stored.taskName().equals(task.getTaskName())) {
+                return stored;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean addTask(String username, Task task) {
+        LocalDateTime now = LocalDateTime.now();
+        long id = nextId.getAndIncrement();
+        tasksOf(username).put(id, new StoredTask(id, task.getTaskName(), task.getTaskType(), task.getPriority(),
+                task.getIsCompleted(), task.getDeadline(), now, now));
+        task.setId(id);
+        return true;
+    }
+
+    @Override
+    public boolean taskExists(String username, String taskName) {
+        for (StoredTask stored : tasksOf(username).values()) {
+            if (!stored.completed() && stored.taskName().equalsIgnoreCase(taskName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<Task> getUserTasks(String username) {
+        List<Task> open = new ArrayList<>();
+        for (StoredTask stored : tasksOf(username).descendingMap().values()) {
+            if (!stored.completed()) {
+                open.add(stored.toTask());
+            }
+        }
+        return open;
+    }
+
+    @Override
+    public TaskDashboard getTaskDashboard(String username, int pageSize) {
+        return new TaskDashboard(getUserTasksPage(username, null, pageSize), getUserTaskCount(username),
+                getUserCompletedTaskCount(username), getOverdueTasks(username).size());
+    }
+
+    @Override
+    public TaskPage getUserTasksPage(String username, TaskPage.Cursor after, int pageSize) {
+        ConcurrentNavigableMap<Long, StoredTask> newestFirst = tasksOf(username).descendingMap();
+        if (after != null) {
+            newestFirst = newestFirst.tailMap(after.id(), false);
+        }
+
+        List<Task> page = new ArrayList<>();
+        StoredTask last = null;
+        for (StoredTask stored : newestFirst.values()) {
+            if (stored.completed()) {
+                continue;
+            }
+            if (page.size() == pageSize) {
+                return new TaskPage(page, new TaskPage.Cursor(last.createdAt(), last.id()));
+            }
+            page.add(stored.toTask());
+            last = stored;
+        }
+        return new TaskPage(page, null);
+    }
+
+    @Override
+    public boolean updateTaskCompletion(String username, Task task, boolean completed) {
+        while (true) {
+            StoredTask stored = find(username, task);
+            if (stored == null) {
+                return false;
+            }
+            if (tasksOf(username).replace(stored.id(), stored, stored.withCompleted(completed))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean updateTask(String username, Task original, Task edited) {
+        while (true) {
+            StoredTask stored = find(username, original);
+            if (stored == null) {
+                return false;
+            }
+            if (tasksOf(username).replace(stored.id(), stored, stored.withDetails(edited))) {
+                edited.setId(stored.id());
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean deleteTask(String username, Task task) {
+        StoredTask stored = find(username, task);
+        return stored != null && tasksOf(username).remove(stored.id(), stored);
+    }
+
+    @Override
+    public int getUserTaskCount(String username) {
+        return tasksOf(username).size();
+    }
+
+    @Override
+    public int getUserCompletedTaskCount(String username) {
+        int completed = 0;
+        for (StoredTask stored : tasksOf(username).values()) {
+            if (stored.completed()) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    @Override
+    public List<Task> getOverdueTasks(String username) {
+        LocalDate today = DayClock.today();
+        List<StoredTask> overdue = new ArrayList<>();
+        for (StoredTask stored : tasksOf(username).values()) {
+            if (!stored.completed() && "Deadline".equals(stored.taskType()) && stored.dueDate() != null && stored.dueDate().isBefore(today)) {
+                overdue.add(stored);
+            }
+        }
+        overdue.sort(Comparator.comparing(StoredTask::dueDate));
+
+        List<Task> result = new ArrayList<>();
+        for (StoredTask stored : overdue) {
+            result.add(stored.toTask());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean testConnection() {
+        return true;
+    }
+
+    // Sessions
+
+    private AtomicIntegerArray countsOf(String username) {
+        return perUser(sessionCounts, username, () -> new AtomicIntegerArray(2));
+    }
+
+    @Override
+    public int[] recordSession(String username, String sessionType, int duration) {
+        perUser(sessions, username, ConcurrentLinkedQueue::new).add(new StoredSession(sessionType, duration, LocalDateTime.now()));
+        countsOf(username).incrementAndGet("work".equals(sessionType) ? 0 : 1);
+        return getSessionCounts(username);
+    }
+
+    @Override
+    public int[] getSessionCounts(String username) {
+        AtomicIntegerArray counts = countsOf(username);
+        return new int[]{counts.get(0), counts.get(1)};
+    }
+
+    @Override
+    public Map<Analytics.Series, Map<LocalDate, Integer>> getSeries(String username, LocalDate from, LocalDate to,
+                                                                    Analytics.Granularity granularity, List<Analytics.Series> series) {
+        Map<Analytics.Series, Map<LocalDate, Integer>> result = new LinkedHashMap<>();
+        for (Analytics.Series s : series) {
+            Map<LocalDate, Integer> values = new LinkedHashMap<>();
+            for (LocalDate bucket = granularity.bucketOf(from); !bucket.isAfter(granularity.bucketOf(to)); bucket = granularity.nextBucket(bucket)) {
+                values.put(bucket, 0);
+            }
+            result.put(s, values);
+        }
+
+        for (StoredSession session : sessions.getOrDefault(username, new ConcurrentLinkedQueue<>())) {
+            LocalDate day = session.createdAt().toLocalDate();
+            if (day.isBefore(from) || day.isAfter(to)) {
+                continue;
+            }
+            for (Analytics.Series s : series) {
+                if (s.metric() != Analytics.Metric.TASKS_COMPLETED && s.sessionType().equals(session.sessionType())) {
+                    int amount = s.metric() == Analytics.Metric.SESSIONS ? 1 : session.duration();
+                    result.get(s).merge(granularity.bucketOf(day), amount, Integer::sum);
+                }
+            }
+        }
+
+        for (StoredTask stored : tasksOf(username).values()) {
+            LocalDate day = stored.updatedAt().toLocalDate();
+            if (!stored.completed() || day.isBefore(from) || day.isAfter(to)) {
+                continue;
+            }
+            for (Analytics.Series s : series) {
+                if (s.metric() == Analytics.Metric.TASKS_COMPLETED) {
+                    result.get(s).merge(granularity.bucketOf(day), 1, Integer::sum);
+                }
+            }
+        }
+
+        return result;
+    }
+}
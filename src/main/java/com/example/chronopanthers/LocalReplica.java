@@ -0,0 +1,747 @@
+package com.example.chronopanthers;
+
+import java.io.File;
+import java.sql.*;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Local SQLite copy of the logged-in user's tasks, sessions and session counts.
+// Reads are served from here once the user has been synced at least once, a background job keeps it in step with Supabase.
+public class LocalReplica {
+    private static final String REPLICA_PATH = System.getProperty("user.home") + File.separator + ".chronopanthers" + File.separator + "replica.db";
+    private static final long SYNC_INTERVAL_SECONDS = 60;
+    // Page cursor id for tasks still waiting for their server id, above any id Supabase hands out
+    private static final long UNSAVED_PAGE_ID = 1L << 62;
+
+    private static Connection connection;
+    // Bumped by every local write and change feed delta, a sync only applies if nothing changed while it was reading
+    private static long replicaVersion; // guarded by LocalReplica.class
+    private static final Set<String> syncedUsers = Collections.synchronizedSet(new HashSet<>());
+
+    private static final ScheduledExecutorService syncExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "local-replica-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static ScheduledFuture<?> syncJob;
+
+    // Open (and create if needed) the replica file
+    private static synchronized Connection getConnection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            try {
+                Class.forName("org.sqlite.JDBC");
+            } catch (ClassNotFoundException e) {
+                throw new SQLException("SQLite driver not found", e);
+            }
+
+            new File(REPLICA_PATH).getParentFile().mkdirs();
+            connection = DriverManager.getConnection("jdbc:sqlite:" + REPLICA_PATH);
+            createSchema(connection);
+            loadSyncedUsers(connection);
+        }
+        return connection;
+    }
+
+    private static void createSchema(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS tasks (
+                    id INTEGER,
+                    username TEXT NOT NULL,
+                    task_name TEXT NOT NULL,
+                    task_type TEXT NOT NULL,
+                    priority TEXT NOT NULL,
+                    is_completed INTEGER NOT NULL DEFAULT 0,
+                    due_date TEXT,
+                    created_at TEXT,
+                    updated_at TEXT,
+                    client_key TEXT
+                )
+            """);
+            // Replicas created before tasks carried their server id, NULL until the next sync fills it in
+            try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM pragma_table_info('tasks') WHERE name = 'id'")) {
+                if (!rs.next()) {
+                    stmt.execute("ALTER TABLE tasks ADD COLUMN id INTEGER");
+                }
+            }
+            // Set for tasks added on this device, the key the outbox uses for them until the id is known
+            try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM pragma_table_info('tasks') WHERE name = 'client_key'")) {
+                if (!rs.next()) {
+                    stmt.execute("ALTER TABLE tasks ADD COLUMN client_key TEXT");
+                }
+            }
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_tasks_user ON tasks (username, is_completed)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_tasks_user_id ON tasks (username, id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_tasks_user_open_created ON tasks (username, is_completed, created_at)");
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS sessionslog (
+                    id INTEGER,
+                    username TEXT NOT NULL,
+                    session_type TEXT NOT NULL,
+                    duration INTEGER NOT NULL,
+                    created_at TEXT NOT NULL,
+                    pending INTEGER NOT NULL DEFAULT 0
+                )
+            """);
+            // Sessions are pulled by server id. Synced rows from before that have none, they are dropped and pulled again
+            try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM pragma_table_info('sessionslog') WHERE name = 'id'")) {
+                if (!rs.next()) {
+                    stmt.execute("ALTER TABLE sessionslog ADD COLUMN id INTEGER");
+                    stmt.execute("DELETE FROM sessionslog WHERE pending = 0");
+                }
+            }
+            stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_sessionslog_user_id ON sessionslog (username, id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_sessionslog_user ON sessionslog (username, session_type, created_at)");
+            // Only the session counters are replicated, the password hash never leaves the server
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS loginDetails (
+                    username TEXT PRIMARY KEY,
+                    workSessions INTEGER NOT NULL DEFAULT 0,
+                    breakSessions INTEGER NOT NULL DEFAULT 0,
+                    archivedTasks INTEGER NOT NULL DEFAULT 0
+                )
+            """);
+            // Archived tasks stay on the server, only how many there are is replicated for the counts
+            try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM pragma_table_info('loginDetails') WHERE name = 'archivedTasks'")) {
+                if (!rs.next()) {
+                    stmt.execute("ALTER TABLE loginDetails ADD COLUMN archivedTasks INTEGER NOT NULL DEFAULT 0");
+                }
+            }
+            stmt.execute("CREATE TABLE IF NOT EXISTS sync_state (username TEXT PRIMARY KEY, last_synced_at TEXT NOT NULL)");
+        }
+    }
+
+    private static void loadSyncedUsers(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT username FROM sync_state")) {
+            while (rs.next()) {
+                syncedUsers.add(rs.getString("username"));
+            }
+        }
+    }
+
+    // True once the user has a complete copy locally, this survives restarts so the app works offline
+    public static boolean isReady(String username) {
+        if (username == null) {
+            return false;
+        }
+        try {
+            getConnection();
+        } catch (SQLException e) {
+            return false;
+        }
+        return syncedUsers.contains(username);
+    }
+
+    // Start (or move) the background sync to this user, first run happens straight away
+    public static synchronized void startSync(String username) {
+        if (syncJob != null) {
+            syncJob.cancel(false);
+        }
+        syncJob = syncExecutor.scheduleWithFixedDelay(() -> sync(username), 0, SYNC_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public static void requestSync(String username) {
+        syncExecutor.execute(() -> sync(username));
+    }
+
+    private static synchronized long replicaVersion() {
+        return replicaVersion;
+    }
+
+    // Pull the user's rows from Supabase and reconcile the replica
+    private static void sync(String username) {
+        // Read before checking the outbox: a write journaled after the check bumps it before the apply
+        long versionRead = replicaVersion();
+        // Queued local changes would be overwritten by the older server copy, the outbox asks again once drained
+        if (MutationOutbox.getInstance().hasPending()) {
+            return;
+        }
+
+        try {
+            List<Object[]> remoteTasks = new ArrayList<>();
+            List<Object[]> newSessions = new ArrayList<>();
+            int[] counts = {0, 0, 0}; // {work, break, archived tasks}
+
+            long lastSession = latestSyncedSession(username);
+
+            try (Connection remote = ConnectionPool.getReadConnection(username)) {
+                try (PreparedStatement pstmt = remote.prepareStatement(
+                        "SELECT id, task_name, task_type, priority, is_completed, due_date, created_at, updated_at, client_key FROM tasks WHERE username = ?")) {
+                    pstmt.setString(1, username);
+                    ResultSet rs = pstmt.executeQuery();
+                    while (rs.next()) {
+                        Date dueDate = rs.getDate("due_date");
+                        remoteTasks.add(new Object[]{
+                                rs.getLong("id"),
+                                rs.getString("task_name"),
+                                rs.getString("task_type"),
+                                rs.getString("priority"),
+                                rs.getBoolean("is_completed") ? 1 : 0,
+                                dueDate == null ? null : dueDate.toLocalDate().toString(),
+                                toText(rs.getTimestamp("created_at")),
+                                toText(rs.getTimestamp("updated_at")),
+                                rs.getString("client_key")
+                        });
+                    }
+                }
+
+                // sessionslog is append-only, so only rows the replica does not have yet are pulled. By id rather than
+                // created_at, a session drained late from the outbox is backdated but still gets a new id
+                try (PreparedStatement pstmt = remote.prepareStatement(
+                        "SELECT id, session_type, duration, created_at FROM sessionslog WHERE username = ? AND id > ?")) {
+                    pstmt.setString(1, username);
+                    pstmt.setLong(2, lastSession);
+                    ResultSet rs = pstmt.executeQuery();
+                    while (rs.next()) {
+                        newSessions.add(new Object[]{
+                                rs.getLong("id"),
+                                rs.getString("session_type"),
+                                rs.getInt("duration"),
+                                toText(rs.getTimestamp("created_at"))
+                        });
+                    }
+                }
+
+                try (PreparedStatement pstmt = remote.prepareStatement(
+                        "SELECT workSessions, breakSessions FROM loginDetails WHERE username = ?")) {
+                    pstmt.setString(1, username);
+                    ResultSet rs = pstmt.executeQuery();
+                    if (rs.next()) {
+                        counts[0] = rs.getInt("workSessions");
+                        counts[1] = rs.getInt("breakSessions");
+                    }
+                }
+
+                // Missing until schema migration 8 has run, which only means nothing is archived yet
+                try (PreparedStatement pstmt = remote.prepareStatement(
+                        "SELECT COUNT(*) AS count FROM tasks_archive WHERE username = ?")) {
+                    pstmt.setString(1, username);
+                    ResultSet rs = pstmt.executeQuery();
+                    if (rs.next()) {
+                        counts[2] = rs.getInt("count");
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Error counting archived tasks: " + e.getMessage());
+                }
+            }
+
+            if (!applySync(username, versionRead, remoteTasks, newSessions, counts) && !MutationOutbox.getInstance().hasPending()) {
+                requestSync(username); // a queued change asks again itself once it drains
+            }
+        } catch (SQLException e) {
+            System.err.println("Local replica sync failed, serving cached data: " + e.getMessage());
+        }
+    }
+
+    // False, changing nothing, when the replica was written to since versionRead or a change is still queued:
+    // the server copy read meanwhile may be missing it
+    private static synchronized boolean applySync(String username, long versionRead, List<Object[]> remoteTasks,
+                                                  List<Object[]> newSessions, int[] counts) throws SQLException {
+        if (replicaVersion != versionRead || MutationOutbox.getInstance().hasPending()) {
+            return false;
+        }
+
+        Connection conn = getConnection();
+        conn.setAutoCommit(false);
+        try {
+            try (PreparedStatement delete = conn.prepareStatement("DELETE FROM tasks WHERE username = ?")) {
+                delete.setString(1, username);
+                delete.executeUpdate();
+            }
+            try (PreparedStatement insert = conn.prepareStatement(
+                    "INSERT INTO tasks (username, id, task_name, task_type, priority, is_completed, due_date, created_at, updated_at, client_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (Object[] row : remoteTasks) {
+                    insert.setString(1, username);
+                    for (int i = 0; i < row.length; i++) {
+                        insert.setObject(i + 2, row[i]);
+                    }
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+
+            // Nothing is queued, so every locally recorded session has reached the server and is replaced by its copy.
+            // The change feed may have inserted some of the pulled rows already
+            try (PreparedStatement delete = conn.prepareStatement("DELETE FROM sessionslog WHERE username = ? AND pending = 1")) {
+                delete.setString(1, username);
+                delete.executeUpdate();
+            }
+            try (PreparedStatement insert = conn.prepareStatement(
+                    "INSERT OR IGNORE INTO sessionslog (username, id, session_type, duration, created_at) VALUES (?, ?, ?, ?, ?)")) {
+                for (Object[] row : newSessions) {
+                    insert.setString(1, username);
+                    for (int i = 0; i < row.length; i++) {
+                        insert.setObject(i + 2, row[i]);
+                    }
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+
+            try (PreparedStatement upsert = conn.prepareStatement(
+                    "INSERT OR REPLACE INTO loginDetails (username, workSessions, breakSessions, archivedTasks) VALUES (?, ?, ?, ?)")) {
+                upsert.setString(1, username);
+                upsert.setInt(2, counts[0]);
+                upsert.setInt(3, counts[1]);
+                upsert.setInt(4, counts[2]);
+                upsert.executeUpdate();
+            }
+
+            try (PreparedStatement upsert = conn.prepareStatement(
+                    "INSERT OR REPLACE INTO sync_state (username, last_synced_at) VALUES (?, ?)")) {
+                upsert.setString(1, username);
+                upsert.setString(2, LocalDateTime.now().toString());
+                upsert.executeUpdate();
+            }
+
+            conn.commit();
+            syncedUsers.add(username);
+            return true;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    // Highest server id the replica has, 0 when it has none
+    private static synchronized long latestSyncedSession(String username) throws SQLException {
+        try (PreparedStatement pstmt = getConnection().prepareStatement(
+                "SELECT COALESCE(MAX(id), 0) AS latest FROM sessionslog WHERE username = ? AND pending = 0")) {
+            pstmt.setString(1, username);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getLong("latest") : 0;
+        }
+    }
+
+    private static String toText(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+    }
+
+    // Write-through after a successful remote write, so reads see the change before the next sync
+    public static synchronized void recordTaskAdded(String username, Task task) {
+        replicaVersion++;
+        if (!isReady(username)) {
+            return;
+        }
+        String sql = "INSERT INTO tasks (username, task_name, task_type, priority, is_completed, due_date, created_at, updated_at, client_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            String now = LocalDateTime.now().toString();
+            pstmt.setString(1, username);
+            pstmt.setString(2, task.getTaskName());
+            pstmt.setString(3, task.getTaskType());
+            pstmt.setString(4, task.getPriority().toString());
+            pstmt.setInt(5, task.getIsCompleted() ? 1 : 0);
+            pstmt.setString(6, task.getDeadline() == null ? null : task.getDeadline().toString());
+            pstmt.setString(7, now);
+            pstmt.setString(8, now);
+            pstmt.setString(9, task.getClientKey() == null ? null : task.getClientKey().toString());
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error updating local replica: " + e.getMessage());
+        }
+    }
+
+    public static synchronized void recordTaskCompletion(String username, Task task, boolean completed) {
+        replicaVersion++;
+        if (!isReady(username)) {
+            return;
+        }
+        String sql = "UPDATE tasks SET is_completed = ?, updated_at = ? WHERE username = ? AND " + keyOf(task);
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            pstmt.setInt(1, completed ? 1 : 0);
+            pstmt.setString(2, LocalDateTime.now().toString());
+            pstmt.setString(3, username);
+            bindKey(pstmt, 4, task);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error updating local replica: " + e.getMessage());
+        }
+    }
+
+    public static synchronized void recordTaskUpdated(String username, Task original, Task edited) {
+        replicaVersion++;
+        if (!isReady(username)) {
+            return;
+        }
+        String sql = "UPDATE tasks SET task_name = ?, task_type = ?, priority = ?, due_date = ?, updated_at = ? WHERE username = ? AND "
+                + keyOf(original);
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            pstmt.setString(1, edited.getTaskName());
+            pstmt.setString(2, edited.getTaskType());
+            pstmt.setString(3, edited.getPriority().toString());
+            pstmt.setString(4, edited.getDeadline() == null ? null : edited.getDeadline().toString());
+            pstmt.setString(5, LocalDateTime.now().toString());
+            pstmt.setString(6, username);
+            bindKey(pstmt, 7, original);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error updating local replica: " + e.getMessage());
+        }
+    }
+
+    public static synchronized void recordTaskDeleted(String username, Task task) {
+        replicaVersion++;
+        if (!isReady(username)) {
+            return;
+        }
+        try (PreparedStatement pstmt = getConnection().prepareStatement("DELETE FROM tasks WHERE username = ? AND " + keyOf(task))) {
+            pstmt.setString(1, username);
+            bindKey(pstmt, 2, task);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error updating local replica: " + e.getMessage());
+        }
+    }
+
+    // Deltas from the change feed. A task this device added has no id locally yet, it is matched by its client key (by
+    // name for one added before tasks had keys) and given its id
+    public static synchronized void applyTaskChanges(String username, List<ChangeFeed.TaskChange> changes) {
+        replicaVersion++;
+        if (!isReady(username)) {
+            return;
+        }
+        try {
+            Connection conn = getConnection();
+            conn.setAutoCommit(false);
+            try {
+                for (ChangeFeed.TaskChange change : changes) {
+                    Task task = change.task();
+                    if (change.kind() == ChangeFeed.Kind.DELETE) {
+                        try (PreparedStatement delete = conn.prepareStatement("DELETE FROM tasks WHERE username = ? AND id = ?")) {
+                            delete.setString(1, username);
+                            delete.setLong(2, task.getId());
+                            delete.executeUpdate();
+                        }
+                        continue;
+                    }
+
+                    String deadline = task.getDeadline() == null ? null : task.getDeadline().toString();
+                    int updated;
+                    try (PreparedStatement update = conn.prepareStatement(
+                            "UPDATE tasks SET task_name = ?, task_type = ?, priority = ?, is_completed = ?, due_date = ?, updated_at = ? WHERE username = ? AND id = ?")) {
+                        update.setString(1, task.getTaskName());
+                        update.setString(2, task.getTaskType());
+                        update.setString(3, task.getPriority().toString());
+                        update.setInt(4, task.getIsCompleted() ? 1 : 0);
+                        update.setString(5, deadline);
+                        update.setString(6, LocalDateTime.now().toString());
+                        update.setString(7, username);
+                        update.setLong(8, task.getId());
+                        updated = update.executeUpdate();
+                    }
+                    if (updated == 0) {
+                        String match = task.getClientKey() != null ? "client_key = ?" : "client_key IS NULL AND task_name = ?";
+                        try (PreparedStatement claim = conn.prepareStatement(
+                                "UPDATE tasks SET id = ?, created_at = ? WHERE rowid = (SELECT rowid FROM tasks WHERE username = ? AND id IS NULL AND " + match + " LIMIT 1)")) {
+                            claim.setLong(1, task.getId());
+                            claim.setString(2, change.createdAt().toString());
+                            claim.setString(3, username);
+                            claim.setString(4, task.getClientKey() != null ? task.getClientKey().toString() : task.getTaskName());
+                            updated = claim.executeUpdate();
+                        }
+                    }
+                    if (updated == 0) {
+                        try (PreparedStatement insert = conn.prepareStatement(
+                                "INSERT INTO tasks (username, id, task_name, task_type, priority, is_completed, due_date, created_at, updated_at, client_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                            insert.setString(1, username);
+                            insert.setLong(2, task.getId());
+                            insert.setString(3, task.getTaskName());
+                            insert.setString(4, task.getTaskType());
+                            insert.setString(5, task.getPriority().toString());
+                            insert.setInt(6, task.getIsCompleted() ? 1 : 0);
+                            insert.setString(7, deadline);
+                            insert.setString(8, change.createdAt().toString());
+                            insert.setString(9, LocalDateTime.now().toString());
+                            insert.setString(10, task.getClientKey() == null ? null : task.getClientKey().toString());
+                            insert.executeUpdate();
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error updating local replica: " + e.getMessage());
+        }
+    }
+
+    // A session from the change feed replaces this device's pending copy of it, if there is one. Ignored when a sync
+    // already pulled the row; id is 0 in events from before schema migration 9, those are always added
+    public static synchronized void applySessionLogged(String username, long id, String sessionType, int duration, String createdAt) {
+        replicaVersion++;
+        if (!isReady(username)) {
+            return;
+        }
+        try (PreparedStatement insert = getConnection().prepareStatement(
+                "INSERT OR IGNORE INTO sessionslog (username, id, session_type, duration, created_at) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement delete = getConnection().prepareStatement(
+                     "DELETE FROM sessionslog WHERE rowid = (SELECT rowid FROM sessionslog WHERE username = ? AND session_type = ? AND duration = ? AND pending = 1 ORDER BY created_at LIMIT 1)")) {
+            insert.setString(1, username);
+            if (id > 0) {
+                insert.setLong(2, id);
+            } else {
+                insert.setNull(2, Types.INTEGER);
+            }
+            insert.setString(3, sessionType);
+            insert.setInt(4, duration);
+            insert.setString(5, createdAt);
+            if (insert.executeUpdate() == 0) {
+                return;
+            }
+
+            delete.setString(1, username);
+            delete.setString(2, sessionType);
+            delete.setInt(3, duration);
+            delete.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error updating local replica: " + e.getMessage());
+        }
+    }
+
+    // Same rule as the outbox, the server id when the task has one and the client key for tasks added since the last
+    // sync. Only an open task is matched by name, for one added before tasks had keys
+    private static String keyOf(Task task) {
+        if (task.getId() > 0) {
+            return "id = ?";
+        }
+        return task.getClientKey() != null ? "client_key = ?" : "task_name = ? AND is_completed = 0";
+    }
+
+    private static void bindKey(PreparedStatement pstmt, int index, Task task) throws SQLException {
+        if (task.getId() > 0) {
+            pstmt.setLong(index, task.getId());
+        } else if (task.getClientKey() != null) {
+            pstmt.setString(index, task.getClientKey().toString());
+        } else {
+            pstmt.setString(index, task.getTaskName());
+        }
+    }
+
+    public static synchronized void recordSessionCount(String username, String sessionType) {
+        replicaVersion++;
+        if (!isReady(username)) {
+            return;
+        }
+        String column = "work".equals(sessionType) ? "workSessions" : "breakSessions";
+        try (PreparedStatement pstmt = getConnection().prepareStatement(
+                "UPDATE loginDetails SET " + column + " = " + column + " + 1 WHERE username = ?")) {
+            pstmt.setString(1, username);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error updating local replica: " + e.getMessage());
+        }
+    }
+
+    // Totals reported by the server once every queued session has reached it
+    public static synchronized void applySessionCounts(String username, int[] counts) {
+        replicaVersion++;
+        if (!isReady(username)) {
+            return;
+        }
+        try (PreparedStatement pstmt = getConnection().prepareStatement(
+                "UPDATE loginDetails SET workSessions = ?, breakSessions = ? WHERE username = ?")) {
+            pstmt.setInt(1, counts[0]);
+            pstmt.setInt(2, counts[1]);
+            pstmt.setString(3, username);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error updating local replica: " + e.getMessage());
+        }
+    }
+
+    public static synchronized void recordSessionLogged(String username, String sessionType, int duration) {
+        replicaVersion++;
+        if (!isReady(username)) {
+            return;
+        }
+        try (PreparedStatement pstmt = getConnection().prepareStatement(
+                "INSERT INTO sessionslog (username, session_type, duration, created_at, pending) VALUES (?, ?, ?, ?, 1)")) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, sessionType);
+            pstmt.setInt(3, duration);
+            pstmt.setString(4, LocalDateTime.now().toString());
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error updating local replica: " + e.getMessage());
+        }
+    }
+
+    // Reads
+    public static synchronized List<Task> getUserTasks(String username) {
+        List<Task> tasks = new ArrayList<>();
+        String sql = "SELECT id, client_key, task_name, task_type, priority, is_completed, due_date FROM tasks WHERE username = ? AND is_completed = 0 ORDER BY created_at DESC";
+
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            pstmt.setString(1, username);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                tasks.add(toTask(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading local replica: " + e.getMessage());
+        }
+
+        return tasks;
+    }
+
+    public static synchronized List<Task> getOverdueTasks(String username) {
+        List<Task> tasks = new ArrayList<>();
+        String sql = "SELECT id, client_key, task_name, task_type, priority, is_completed, due_date FROM tasks " +
+                "WHERE username = ? AND task_type = 'Deadline' AND due_date < ? AND is_completed = 0 ORDER BY due_date ASC";
+
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, DayClock.today().toString());
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                tasks.add(toTask(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading local replica: " + e.getMessage());
+        }
+
+        return tasks;
+    }
+
+    // Includes adds and renames still waiting in the outbox, the replica records them when they are queued
+    public static synchronized boolean hasOpenTask(String username, String taskName) {
+        String sql = "SELECT 1 FROM tasks WHERE username = ? AND LOWER(task_name) = LOWER(?) AND is_completed = 0 LIMIT 1";
+
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, taskName);
+            return pstmt.executeQuery().next();
+        } catch (SQLException e) {
+            System.err.println("Error reading local replica: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public static synchronized TaskDashboard getTaskDashboard(String username, int pageSize) {
+        return new TaskDashboard(getUserTasksPage(username, null, pageSize), getTaskCount(username, null),
+                getTaskCount(username, true), getOverdueTasks(username).size());
+    }
+
+    // Same keyset paging on the same (created_at, id) as Supabase, so a cursor stays valid when getUserTasksPage switches
+    // between the two. A task not on the server yet has no id, it sorts above every server id by its rowid
+    public static synchronized TaskPage getUserTasksPage(String username, TaskPage.Cursor after, int pageSize) {
+        String pageId = "COALESCE(id, " + UNSAVED_PAGE_ID + " + rowid)";
+        String sql = "SELECT " + pageId + " AS page_id, id, client_key, created_at, task_name, task_type, priority, is_completed, due_date FROM tasks " +
+                "WHERE username = ? AND is_completed = 0" + (after == null ? "" : " AND (created_at, " + pageId + ") < (?, ?)") +
+                " ORDER BY created_at DESC, page_id DESC LIMIT ?";
+
+        List<Task> tasks = new ArrayList<>();
+        TaskPage.Cursor last = null;
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            int index = 1;
+            pstmt.setString(index++, username);
+            if (after != null) {
+                pstmt.setString(index++, after.createdAt().toString());
+                pstmt.setLong(index++, after.id());
+            }
+            pstmt.setInt(index, pageSize + 1);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                if (tasks.size() == pageSize) {
+                    return new TaskPage(tasks, last);
+                }
+                tasks.add(toTask(rs));
+                last = new TaskPage.Cursor(LocalDateTime.parse(rs.getString("created_at")), rs.getLong("page_id"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading local replica: " + e.getMessage());
+        }
+
+        return new TaskPage(tasks, null);
+    }
+
+    // Total when completed is null, otherwise only tasks with that completion status. Archived tasks count as completed
+    public static synchronized int getTaskCount(String username, Boolean completed) {
+        String sql = "SELECT COUNT(*) AS count FROM tasks WHERE username = ?" + (completed == null ? "" : " AND is_completed = ?");
+        if (completed == null || completed) {
+            sql = "SELECT (" + sql + ") + COALESCE((SELECT archivedTasks FROM loginDetails WHERE username = ?), 0) AS count";
+        }
+
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            pstmt.setString(1, username);
+            if (completed != null) {
+                pstmt.setInt(2, completed ? 1 : 0);
+            }
+            if (completed == null || completed) {
+                pstmt.setString(completed == null ? 2 : 3, username);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt("count");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading local replica: " + e.getMessage());
+        }
+
+        return 0;
+    }
+
+    public static synchronized int[] getSessionCounts(String username) {
+        int[] counts = {0, 0};
+
+        try (PreparedStatement pstmt = getConnection().prepareStatement(
+                "SELECT workSessions, breakSessions FROM loginDetails WHERE username = ?")) {
+            pstmt.setString(1, username);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                counts[0] = rs.getInt("workSessions");
+                counts[1] = rs.getInt("breakSessions");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading local replica: " + e.getMessage());
+        }
+
+        return counts;
+    }
+
+    public static synchronized Map<Analytics.Series, Map<LocalDate, Integer>> getSeries(String username, LocalDate from, LocalDate to,
+                                                                                       Analytics.Granularity granularity, List<Analytics.Series> series) {
+        try {
+            return Analytics.query(getConnection(), true, username, from, to, granularity, series);
+        } catch (SQLException e) {
+            System.err.println("Error reading local replica: " + e.getMessage());
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private static Task toTask(ResultSet rs) throws SQLException {
+        String taskName = rs.getString("task_name");
+        String taskType = rs.getString("task_type");
+        Task.Priority priority = Task.Priority.valueOf(rs.getString("priority"));
+        String dueDate = rs.getString("due_date");
+
+        Task task;
+        if ("Deadline".equals(taskType) && dueDate != null) {
+            task = new DeadlineTask(taskName, LocalDate.parse(dueDate), priority);
+        } else {
+            task = new NormalTask(taskName, priority);
+        }
+
+        if (rs.getInt("is_completed") == 1) {
+            task.complete();
+        }
+        task.setId(rs.getLong("id")); // 0 for a NULL id
+        String clientKey = rs.getString("client_key");
+        task.setClientKey(clientKey == null ? null : UUID.fromString(clientKey));
+        return task;
+    }
+}
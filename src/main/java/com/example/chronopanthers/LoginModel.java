@@ -4,20 +4,11 @@ import java.security.NoSuchAlgorithmException;
 import java.sql.*;
 
 public class LoginModel {
-    Connection connection;
-
-    public LoginModel() {
-        connection = SupabaseConnection.connector();
-        if (connection == null) System.exit(1);
-    }
 
+    // Connections are borrowed from the shared pool per query instead of being held open.
+    // Every method here does network I/O, controllers call them through AsyncDatabase.
     public boolean isDbConnected() {
-        try {
-            return !connection.isClosed();
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
-        }
+        return SupabaseConnection.testConnection();
     }
 
     // Hash function to secure password
@@ -36,60 +27,43 @@ public class LoginModel {
     }
 
     // Check if login is successful
-    public boolean isLogin(String user, String pass) throws SQLException {
-        PreparedStatement preparedStatement = null;
-        ResultSet resultSet = null;
+    public boolean isLogin(String user, String pass) {
         String query = "SELECT * FROM loginDetails WHERE username = ? AND password = ?";
-        try {
-            preparedStatement = connection.prepareStatement(query);
+        try (Connection connection = SupabaseConnection.connector();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
             preparedStatement.setString(1, user);
             preparedStatement.setString(2, hashPassword(pass)); // Hash the password before comparing
 
-            resultSet = preparedStatement.executeQuery();
-            if (resultSet.next()) {
-                return true;
-            } else {
-                return false;
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next();
             }
         } catch (Exception e) {
             return false;
-        } finally {
-            if (preparedStatement != null) preparedStatement.close();
-            if (resultSet != null) resultSet.close();
         }
     }
 
     // Check if sign up is successful
-    public boolean isSignUp(String user, String pass) throws SQLException {
-        PreparedStatement selectStatement = null;
-        ResultSet resultSet = null;
-        PreparedStatement insertStatement = null;
+    public boolean isSignUp(String user, String pass) {
         String query = "SELECT * FROM loginDetails WHERE username = ?";
-        try {
-            selectStatement = connection.prepareStatement(query);
+        try (Connection connection = SupabaseConnection.connector();
+             PreparedStatement selectStatement = connection.prepareStatement(query)) {
             selectStatement.setString(1, user);
 
-            resultSet = selectStatement.executeQuery();
-            if (resultSet.next()) {
-                return false; // already signed up
-            } else {
-                query = "INSERT INTO loginDetails (username, password) VALUES (?, ?)";
-                insertStatement = connection.prepareStatement(query);
+            try (ResultSet resultSet = selectStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    return false; // already signed up
+                }
+            }
+
+            query = "INSERT INTO loginDetails (username, password) VALUES (?, ?)";
+            try (PreparedStatement insertStatement = connection.prepareStatement(query)) {
                 insertStatement.setString(1, user);
                 insertStatement.setString(2, hashPassword(pass)); // Hash the password before storing
                 int rowsInserted = insertStatement.executeUpdate();
-                if (rowsInserted > 0) {
-                    return true;
-                } else {
-                    return false;
-                }
+                return rowsInserted > 0;
             }
         } catch (Exception e) {
             return false;
-        } finally {
-            if (selectStatement != null) selectStatement.close();
-            if (insertStatement != null) insertStatement.close();
-            if (resultSet != null) resultSet.close();
         }
     }
-}
\ No newline at end of file
+}
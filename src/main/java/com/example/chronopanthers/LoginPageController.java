@@ -48,31 +48,47 @@ public class LoginPageController implements Initializable {
         });
 
 
-        if (loginModel.isDbConnected()) {
-            isConnected.setText("");
-            System.out.println("Connected to DB");
-        } else {
-            isConnected.setText("Not Connected to DB");
-        }
+        AsyncDatabase.onFx(AsyncDatabase.isDbConnected(loginModel), connected -> {
+            if (connected) {
+                isConnected.setText("");
+                System.out.println("Connected to DB");
+            } else {
+                isConnected.setText("Not Connected to DB");
+            }
+        });
     }
     // Go to Timer if valid credentials
     public void login(ActionEvent event) throws IOException {
-        try {
-            if (txtUsername.getText().isBlank()) {
-                isConnected.setText("Username Empty!");
-            } else if (txtPassword.getText().isBlank()) {
-                isConnected.setText("Password Empty!");
-            } else if (!loginModel.isLogin(txtUsername.getText(), txtPassword.getText())) {
+        if (txtUsername.getText().isBlank()) {
+            isConnected.setText("Username Empty!");
+            return;
+        } else if (txtPassword.getText().isBlank()) {
+            isConnected.setText("Password Empty!");
+            return;
+        }
+
+        String username = txtUsername.getText();
+        stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+
+        // Check the credentials in the background, the button stays disabled until the answer is back
+        login.setDisable(true);
+        AsyncDatabase.onFx(AsyncDatabase.isLogin(loginModel, username, txtPassword.getText()), success -> {
+            login.setDisable(false);
+            if (!success) {
                 isConnected.setText("Username or password is incorrect");
-            } else {
+                return;
+            }
+
+            try {
                 isConnected.setText("");
                 //System.out.println("Login Successful");
+                Repositories.tasks().onLogin(username);
+                UserSession.start(username);
 
                 FXMLLoader loader = new FXMLLoader(getClass().getResource("timer.fxml"));
                 Parent root = loader.load();
                 Controller mainController = loader.getController();
-                mainController.setCurrentUser(txtUsername.getText());
-                stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+                mainController.setCurrentUser(username);
                 mainController.setStage(stage);
                 scene = new Scene(root);
                 scene.getStylesheets().add(getClass().getResource("/com/example/chronopanthers/timer.css").toExternalForm());
@@ -80,10 +96,10 @@ public class LoginPageController implements Initializable {
                 stage.setScene(scene);
                 stage.setResizable(false);
                 stage.show();
+            } catch (Exception e) {
+                e.printStackTrace();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        });
     }
 
     // Go to sign up page
@@ -0,0 +1,690 @@
+package com.example.chronopanthers;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.sql.Date;
+import java.util.*;
+import java.util.zip.CRC32;
+
+// Write-behind outbox for every task and session mutation.
+// Mutations are appended to a memory-mapped journal (which survives a crash of the app) and a background
+// drainer batches them into Postgres. Each mutation carries a UUID, so replaying after a crash never applies it twice.
+public class MutationOutbox {
+    private static final Path JOURNAL_PATH = Path.of(System.getProperty("user.home"), ".chronopanthers", "outbox.journal");
+    private static final int MAGIC = 0x43504F42; // "CPOB"
+    private static final int HEADER_SIZE = 16;   // magic (4) + padding (4) + drained offset (8)
+    private static final int DRAINED_OFFSET_POS = 8;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final int BATCH_SIZE = 50;
+    private static final long IDLE_WAIT_MS = 2_000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    public enum Type {
+        ADD_TASK("INSERT INTO tasks (username, task_name, task_type, priority, is_completed, due_date) VALUES (?, ?, ?, ?, ?, ?)"),
+        // Name-keyed, only for tasks added before tasks carried a client key and not synced since. Each touches one row,
+        // the newest with that name in the other state, so a same-named task from history is never reopened or deleted
+        COMPLETE_TASK("UPDATE tasks SET is_completed = ? WHERE id = (SELECT id FROM tasks WHERE username = ? AND task_name = ? AND is_completed = ? ORDER BY created_at DESC LIMIT 1)"),
+        DELETE_TASK("DELETE FROM tasks WHERE id = (SELECT id FROM tasks WHERE username = ? AND task_name = ? AND is_completed = false ORDER BY created_at DESC LIMIT 1)"),
+        // The three session types below are no longer queued, RECORD_SESSION replaced them. Kept to drain older journals
+        WORK_SESSION_COUNT("UPDATE loginDetails SET workSessions = workSessions + 1 WHERE username = ?"),
+        BREAK_SESSION_COUNT("UPDATE loginDetails SET breakSessions = breakSessions + 1 WHERE username = ?"),
+        // created_at is backdated by the time the mutation spent in the outbox, so offline sessions land on the right day
+        LOG_SESSION("INSERT INTO sessionslog (username, session_type, duration, created_at) VALUES (?, ?, ?, now() - make_interval(secs => ?))"),
+        // Keyed on the primary key, or on the client key below for a task added here whose id is not known yet.
+        // New types go at the end, the journal stores the ordinal.
+        COMPLETE_TASK_BY_ID("UPDATE tasks SET is_completed = ? WHERE id = ? AND username = ?"),
+        DELETE_TASK_BY_ID("DELETE FROM tasks WHERE id = ? AND username = ?"),
+        UPDATE_TASK_BY_ID("UPDATE tasks SET task_name = ?, task_type = ?, priority = ?, due_date = ? WHERE id = ? AND username = ?"),
+        UPDATE_TASK("UPDATE tasks SET task_name = ?, task_type = ?, priority = ?, due_date = ? WHERE id = (SELECT id FROM tasks WHERE username = ? AND task_name = ? AND is_completed = false ORDER BY created_at DESC LIMIT 1)"),
+        // Log row and counter in one call to the record_pomodoro function from schema migration 7, backdated like LOG_SESSION.
+        // It returns the new totals, so it is run as a query rather than batched.
+        RECORD_SESSION("SELECT work_sessions, break_sessions FROM record_pomodoro(?, ?, ?, (now() - make_interval(secs => ?))::timestamp)"),
+        // client_key is from schema migration 10, the drainer only runs once the migrations have
+        ADD_TASK_KEYED("INSERT INTO tasks (username, task_name, task_type, priority, is_completed, due_date, client_key) VALUES (?, ?, ?, ?, ?, ?, ?)"),
+        COMPLETE_TASK_BY_KEY("UPDATE tasks SET is_completed = ? WHERE client_key = ? AND username = ?"),
+        DELETE_TASK_BY_KEY("DELETE FROM tasks WHERE client_key = ? AND username = ?"),
+        UPDATE_TASK_BY_KEY("UPDATE tasks SET task_name = ?, task_type = ?, priority = ?, due_date = ? WHERE client_key = ? AND username = ?");
+
+        private final String sql;
+
+        Type(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    public record Mutation(UUID id, Type type, long enqueuedAt, String username, String[] args) {
+        // Gives the task its client key, the later changes to it are keyed on that until it has its id
+        public static Mutation addTask(String username, Task task) {
+            if (task.getClientKey() == null) {
+                task.setClientKey(UUID.randomUUID());
+            }
+            return create(Type.ADD_TASK_KEYED, username, task.getTaskName(), task.getTaskType(), task.getPriority().toString(),
+                    String.valueOf(task.getIsCompleted()), task.getDeadline() == null ? null : task.getDeadline().toString(),
+                    task.getClientKey().toString());
+        }
+
+        public static Mutation completeTask(String username, Task task, boolean completed) {
+            if (task.getId() > 0) {
+                return create(Type.COMPLETE_TASK_BY_ID, username, String.valueOf(task.getId()), String.valueOf(completed));
+            }
+            if (task.getClientKey() != null) {
+                return create(Type.COMPLETE_TASK_BY_KEY, username, task.getClientKey().toString(), String.valueOf(completed));
+            }
+            return create(Type.COMPLETE_TASK, username, task.getTaskName(), String.valueOf(completed));
+        }
+
+        public static Mutation deleteTask(String username, Task task) {
+            if (task.getId() > 0) {
+                return create(Type.DELETE_TASK_BY_ID, username, String.valueOf(task.getId()));
+            }
+            if (task.getClientKey() != null) {
+                return create(Type.DELETE_TASK_BY_KEY, username, task.getClientKey().toString());
+            }
+            return create(Type.DELETE_TASK, username, task.getTaskName());
+        }
+
+        // Edits the row in place, so created_at and the id survive
+        public static Mutation updateTask(String username, Task original, Task edited) {
+            String deadline = edited.getDeadline() == null ? null : edited.getDeadline().toString();
+            Type type;
+            String key;
+            if (original.getId() > 0) {
+                type = Type.UPDATE_TASK_BY_ID;
+                key = String.valueOf(original.getId());
+            } else if (original.getClientKey() != null) {
+                type = Type.UPDATE_TASK_BY_KEY;
+                key = original.getClientKey().toString();
+            } else {
+                type = Type.UPDATE_TASK;
+                key = original.getTaskName();
+            }
+            return create(type, username, key, edited.getTaskName(), edited.getTaskType(), edited.getPriority().toString(), deadline);
+        }
+
+        public static Mutation recordSession(String username, String sessionType, int duration) {
+            return create(Type.RECORD_SESSION, username, sessionType, String.valueOf(duration));
+        }
+
+        private static Mutation create(Type type, String username, String... args) {
+            return new Mutation(UUID.randomUUID(), type, System.currentTimeMillis(), username, args);
+        }
+    }
+
+    private record Entry(Mutation mutation, long endOffset) {}
+
+    private static MutationOutbox instance;
+
+    private final FileChannel channel;
+    private MappedByteBuffer journal;
+    private int writePos;
+    private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+    private final Object lock = new Object();
+    private boolean tableReady = false;
+
+    private MutationOutbox() throws IOException {
+        JOURNAL_PATH.getParent().toFile().mkdirs();
+        channel = FileChannel.open(JOURNAL_PATH, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        journal = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), INITIAL_CAPACITY));
+        recover();
+
+        Thread drainer = new Thread(this::drainLoop, "outbox-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    public static synchronized MutationOutbox getInstance() {
+        if (instance == null) {
+            try {
+                instance = new MutationOutbox();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open outbox journal " + JOURNAL_PATH, e);
+            }
+        }
+        return instance;
+    }
+
+    // Replay whatever was journaled but not yet drained before the last shutdown or crash
+    private void recover() {
+        if (journal.getInt(0) != MAGIC) {
+            journal.putInt(0, MAGIC);
+            journal.putLong(DRAINED_OFFSET_POS, HEADER_SIZE);
+            journal.putInt(HEADER_SIZE, 0);
+            writePos = HEADER_SIZE;
+            return;
+        }
+
+        int pos = (int) journal.getLong(DRAINED_OFFSET_POS);
+        while (pos + 8 <= journal.capacity()) {
+            int length = journal.getInt(pos);
+            if (length <= 0 || pos + 8 + length > journal.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            journal.get(pos + 8, payload);
+            if (journal.getInt(pos + 4) != checksum(payload)) {
+                break; // torn write at the tail, everything before it is intact
+            }
+            try {
+                pos += 8 + length;
+                pending.add(new Entry(decode(payload), pos));
+            } catch (IOException e) {
+                break;
+            }
+        }
+        writePos = pos;
+    }
+
+    // Journal a mutation, returns as soon as it is in the mapped file
+    public boolean enqueue(Mutation mutation) {
+        try {
+            byte[] payload = encode(mutation);
+            synchronized (lock) {
+                ensureCapacity(8 + payload.length + 4);
+                journal.putInt(writePos + 4, checksum(payload));
+                journal.put(writePos + 8, payload);
+                journal.putInt(writePos + 8 + payload.length, 0); // terminator, stale bytes beyond it are ignored
+                journal.putInt(writePos, payload.length);         // length last, so a half-written record is never read
+                writePos += 8 + payload.length;
+
+                pending.add(new Entry(mutation, writePos));
+                lock.notifyAll();
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error journaling change: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Whether the queued task changes leave an open task with this name (ignoring case) once they reach the database
+    public boolean hasQueuedOpenTask(String username, String taskName) {
+        boolean open = false;
+        Map<String, String> keyedNames = new HashMap<>(); // client key to the task's name as of the queued changes so far
+        synchronized (lock) {
+            for (Entry entry : pending) {
+                Mutation mutation = entry.mutation();
+                String[] args = mutation.args();
+                if (!mutation.username().equals(username)) {
+                    continue;
+                }
+                // The name the change is about, where the journal has it
+                String name = switch (mutation.type()) {
+                    case ADD_TASK, COMPLETE_TASK, DELETE_TASK, UPDATE_TASK -> args[0];
+                    case ADD_TASK_KEYED -> {
+                        keyedNames.put(args[5], args[0]);
+                        yield args[0];
+                    }
+                    case COMPLETE_TASK_BY_KEY, DELETE_TASK_BY_KEY, UPDATE_TASK_BY_KEY -> keyedNames.get(args[0]);
+                    default -> null;
+                };
+                switch (mutation.type()) {
+                    case ADD_TASK, ADD_TASK_KEYED -> {
+                        if (name.equalsIgnoreCase(taskName)) {
+                            open = !Boolean.parseBoolean(args[3]);
+                        }
+                    }
+                    case COMPLETE_TASK, COMPLETE_TASK_BY_KEY -> {
+                        if (taskName.equalsIgnoreCase(name)) {
+                            open = !Boolean.parseBoolean(args[1]);
+                        }
+                    }
+                    case DELETE_TASK, DELETE_TASK_BY_KEY -> {
+                        if (taskName.equalsIgnoreCase(name)) {
+                            open = false;
+                        }
+                    }
+                    case UPDATE_TASK, UPDATE_TASK_BY_ID, UPDATE_TASK_BY_KEY -> {
+                        if (mutation.type() == Type.UPDATE_TASK_BY_KEY) {
+                            keyedNames.put(args[0], args[1]);
+                        }
+                        if (args[1].equalsIgnoreCase(taskName)) {
+                            open = true;
+                        } else if (mutation.type() != Type.UPDATE_TASK_BY_ID && taskName.equalsIgnoreCase(name)) {
+                            open = false; // renamed away
+                        }
+                    }
+                    default -> {}
+                }
+            }
+        }
+        return open;
+    }
+
+    public boolean hasPending() {
+        synchronized (lock) {
+            return !pending.isEmpty();
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    // Block until everything queued so far has reached the database, or the timeout passes
+    public boolean awaitDrained(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (lock) {
+            lock.notifyAll(); // wake the drainer if it is idling
+            while (!pending.isEmpty()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private void ensureCapacity(int needed) throws IOException {
+        if (writePos + needed <= journal.capacity()) {
+            return;
+        }
+        long capacity = journal.capacity();
+        while (writePos + needed > capacity) {
+            capacity *= 2;
+        }
+        journal.force();
+        journal = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private void drainLoop() {
+        long backoff = 1_000;
+
+        while (true) {
+            List<Entry> batch = new ArrayList<>();
+            synchronized (lock) {
+                while (pending.isEmpty()) {
+                    try {
+                        lock.wait(IDLE_WAIT_MS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                Iterator<Entry> iterator = pending.iterator();
+                while (iterator.hasNext() && batch.size() < BATCH_SIZE) {
+                    batch.add(iterator.next());
+                }
+                // Flush to disk before anything is acknowledged, this covers power loss as well as app crashes
+                journal.force();
+            }
+
+            try {
+                ensureAppliedTable();
+            } catch (SQLException e) {
+                // Not the fault of the queued changes, so nothing is dropped until setup succeeds
+                System.err.println("Outbox setup failed, retrying in " + backoff / 1000 + "s: " + e.getMessage());
+                if (!sleep(backoff)) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+                continue;
+            }
+
+            try {
+                acknowledge(batch, applyBatch(batch));
+                backoff = 1_000;
+            } catch (SQLException e) {
+                if (!isRetryable(e) && batch.size() > 1) {
+                    // Isolate the bad mutation so it cannot hold back the rest
+                    drainOneByOne(batch);
+                    continue;
+                }
+                if (!isRetryable(e)) {
+                    System.err.println("Dropping change rejected by the database (" + batch.get(0).mutation().type() + "): " + e.getMessage());
+                    acknowledge(batch, Map.of());
+                    continue;
+                }
+
+                System.err.println("Outbox drain failed, retrying in " + backoff / 1000 + "s: " + e.getMessage());
+                if (!sleep(backoff)) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    private void drainOneByOne(List<Entry> batch) {
+        for (Entry entry : batch) {
+            Map<String, int[]> sessionTotals = Map.of();
+            try {
+                sessionTotals = applyBatch(List.of(entry));
+            } catch (SQLException e) {
+                if (isRetryable(e)) {
+                    return; // retried by the main loop
+                }
+                System.err.println("Dropping change rejected by the database (" + entry.mutation().type() + "): " + e.getMessage());
+            }
+            acknowledge(List.of(entry), sessionTotals);
+        }
+    }
+
+    // One transaction per batch, consecutive mutations of the same type go out as a single JDBC batch.
+    // Returns the session totals reported by RECORD_SESSION, latest per user
+    private Map<String, int[]> applyBatch(List<Entry> batch) throws SQLException {
+        Map<String, int[]> sessionTotals = new HashMap<>();
+        try (Connection conn = borrowConnection()) {
+            conn.setAutoCommit(false);
+
+            try {
+                // Idempotency: only mutations whose id was not recorded before are applied
+                boolean[] fresh = new boolean[batch.size()];
+                try (PreparedStatement claim = conn.prepareStatement(
+                        "INSERT INTO applied_mutations (mutation_id) VALUES (?) ON CONFLICT DO NOTHING")) {
+                    for (Entry entry : batch) {
+                        claim.setObject(1, entry.mutation().id());
+                        claim.addBatch();
+                    }
+                    int[] claimed = claim.executeBatch();
+                    for (int i = 0; i < claimed.length; i++) {
+                        fresh[i] = claimed[i] != 0;
+                    }
+                }
+
+                PreparedStatement current = null;
+                Type currentType = null;
+                try {
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (!fresh[i]) {
+                            continue;
+                        }
+                        Mutation mutation = batch.get(i).mutation();
+                        if (mutation.type() == Type.RECORD_SESSION) {
+                            // Keep journal order, whatever is batched so far goes out first
+                            if (current != null) {
+                                current.executeBatch();
+                                current.close();
+                                current = null;
+                                currentType = null;
+                            }
+                            try (PreparedStatement query = conn.prepareStatement(Type.RECORD_SESSION.sql)) {
+                                bind(query, mutation);
+                                ResultSet rs = query.executeQuery();
+                                if (rs.next()) {
+                                    sessionTotals.put(mutation.username(), new int[]{rs.getInt("work_sessions"), rs.getInt("break_sessions")});
+                                }
+                            }
+                            continue;
+                        }
+                        if (mutation.type() != currentType) {
+                            if (current != null) {
+                                current.executeBatch();
+                                current.close();
+                            }
+                            currentType = mutation.type();
+                            current = conn.prepareStatement(currentType.sql);
+                        }
+                        bind(current, mutation);
+                        current.addBatch();
+                    }
+                    if (current != null) {
+                        current.executeBatch();
+                    }
+                } finally {
+                    if (current != null) {
+                        current.close();
+                    }
+                }
+
+                conn.commit();
+                return sessionTotals;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static Connection borrowConnection() throws SQLException {
+        try {
+            return ConnectionPool.getInstance().getConnection();
+        } catch (RuntimeException | LinkageError e) {
+            // Missing configuration or driver, treated like being offline so nothing is dropped
+            throw new SQLException("Database unavailable: " + e.getMessage(), e);
+        }
+    }
+
+    private void bind(PreparedStatement pstmt, Mutation mutation) throws SQLException {
+        String[] args = mutation.args();
+        switch (mutation.type()) {
+            case ADD_TASK -> {
+                pstmt.setString(1, mutation.username());
+                pstmt.setString(2, args[0]);
+                pstmt.setString(3, args[1]);
+                pstmt.setString(4, args[2]);
+                pstmt.setBoolean(5, Boolean.parseBoolean(args[3]));
+                if (args[4] != null) {
+                    pstmt.setDate(6, Date.valueOf(args[4]));
+                } else {
+                    pstmt.setNull(6, Types.DATE);
+                }
+            }
+            case ADD_TASK_KEYED -> {
+                pstmt.setString(1, mutation.username());
+                pstmt.setString(2, args[0]);
+                pstmt.setString(3, args[1]);
+                pstmt.setString(4, args[2]);
+                pstmt.setBoolean(5, Boolean.parseBoolean(args[3]));
+                if (args[4] != null) {
+                    pstmt.setDate(6, Date.valueOf(args[4]));
+                } else {
+                    pstmt.setNull(6, Types.DATE);
+                }
+                pstmt.setObject(7, UUID.fromString(args[5]));
+            }
+            case COMPLETE_TASK -> {
+                boolean completed = Boolean.parseBoolean(args[1]);
+                pstmt.setBoolean(1, completed);
+                pstmt.setString(2, mutation.username());
+                pstmt.setString(3, args[0]);
+                pstmt.setBoolean(4, !completed);
+            }
+            case DELETE_TASK -> {
+                pstmt.setString(1, mutation.username());
+                pstmt.setString(2, args[0]);
+            }
+            case COMPLETE_TASK_BY_ID -> {
+                pstmt.setBoolean(1, Boolean.parseBoolean(args[1]));
+                pstmt.setLong(2, Long.parseLong(args[0]));
+                pstmt.setString(3, mutation.username());
+            }
+            case DELETE_TASK_BY_ID -> {
+                pstmt.setLong(1, Long.parseLong(args[0]));
+                pstmt.setString(2, mutation.username());
+            }
+            case COMPLETE_TASK_BY_KEY -> {
+                pstmt.setBoolean(1, Boolean.parseBoolean(args[1]));
+                pstmt.setObject(2, UUID.fromString(args[0]));
+                pstmt.setString(3, mutation.username());
+            }
+            case DELETE_TASK_BY_KEY -> {
+                pstmt.setObject(1, UUID.fromString(args[0]));
+                pstmt.setString(2, mutation.username());
+            }
+            case UPDATE_TASK_BY_ID, UPDATE_TASK_BY_KEY, UPDATE_TASK -> {
+                pstmt.setString(1, args[1]);
+                pstmt.setString(2, args[2]);
+                pstmt.setString(3, args[3]);
+                if (args[4] != null) {
+                    pstmt.setDate(4, Date.valueOf(args[4]));
+                } else {
+                    pstmt.setNull(4, Types.DATE);
+                }
+                if (mutation.type() == Type.UPDATE_TASK_BY_ID) {
+                    pstmt.setLong(5, Long.parseLong(args[0]));
+                    pstmt.setString(6, mutation.username());
+                } else if (mutation.type() == Type.UPDATE_TASK_BY_KEY) {
+                    pstmt.setObject(5, UUID.fromString(args[0]));
+                    pstmt.setString(6, mutation.username());
+                } else {
+                    pstmt.setString(5, mutation.username());
+                    pstmt.setString(6, args[0]);
+                }
+            }
+            case WORK_SESSION_COUNT, BREAK_SESSION_COUNT -> pstmt.setString(1, mutation.username());
+            case LOG_SESSION, RECORD_SESSION -> {
+                pstmt.setString(1, mutation.username());
+                pstmt.setString(2, args[0]);
+                pstmt.setInt(3, Integer.parseInt(args[1]));
+                pstmt.setDouble(4, Math.max(0, System.currentTimeMillis() - mutation.enqueuedAt()) / 1000.0);
+            }
+        }
+    }
+
+    // applied_mutations comes from the schema migrations, old keys are pruned once per run
+    // Migrations and the applied_mutations prune, run before the first batch and again after a failure
+    private void ensureAppliedTable() throws SQLException {
+        if (tableReady) {
+            return;
+        }
+        SchemaMigrations.migrate();
+        try (Connection conn = borrowConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM applied_mutations WHERE applied_at < now() - INTERVAL '30 days'");
+        }
+        tableReady = true;
+    }
+
+    // Move the drained offset past the batch, and rewind the journal once it is empty
+    private void acknowledge(List<Entry> batch, Map<String, int[]> sessionTotals) {
+        Set<String> settledCounts = new HashSet<>();
+        synchronized (lock) {
+            for (int i = 0; i < batch.size(); i++) {
+                pending.pollFirst();
+            }
+            // The server totals only match the replica once no later session for that user is still queued
+            for (String username : sessionTotals.keySet()) {
+                if (!hasQueuedSession(username)) {
+                    settledCounts.add(username);
+                }
+            }
+            journal.putLong(DRAINED_OFFSET_POS, batch.get(batch.size() - 1).endOffset());
+
+            if (pending.isEmpty()) {
+                journal.putInt(HEADER_SIZE, 0);
+                journal.putLong(DRAINED_OFFSET_POS, HEADER_SIZE);
+                writePos = HEADER_SIZE;
+            }
+            lock.notifyAll();
+        }
+
+        // The server copy has changed, charts loaded from it are stale and the read replica may not have it yet
+        for (Entry entry : batch) {
+            Mutation mutation = entry.mutation();
+            ConnectionPool.recordWrite(mutation.username());
+            switch (mutation.type()) {
+                case LOG_SESSION, RECORD_SESSION -> AnalyticsCache.invalidateSessions(mutation.username(), mutation.args()[0]);
+                case COMPLETE_TASK, DELETE_TASK, COMPLETE_TASK_BY_ID, DELETE_TASK_BY_ID, COMPLETE_TASK_BY_KEY, DELETE_TASK_BY_KEY ->
+                        AnalyticsCache.invalidateTasks(mutation.username());
+                default -> {
+                }
+            }
+        }
+
+        for (String username : settledCounts) {
+            LocalReplica.applySessionCounts(username, sessionTotals.get(username));
+            UserSession.invalidateSessionCounts(username);
+        }
+
+        if (!hasPending()) {
+            for (String username : usernames(batch)) {
+                LocalReplica.requestSync(username);
+            }
+        }
+    }
+
+    // Call with lock held
+    private boolean hasQueuedSession(String username) {
+        for (Entry entry : pending) {
+            Mutation mutation = entry.mutation();
+            Type type = mutation.type();
+            if (mutation.username().equals(username)
+                    && (type == Type.RECORD_SESSION || type == Type.WORK_SESSION_COUNT || type == Type.BREAK_SESSION_COUNT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> usernames(List<Entry> batch) {
+        Set<String> usernames = new HashSet<>();
+        for (Entry entry : batch) {
+            usernames.add(entry.mutation().username());
+        }
+        return usernames;
+    }
+
+    // Only a rejection of the change itself (bad data, a broken constraint, an error raised by a function) is dropped.
+    // Anything about the connection, the login, permissions or missing schema is retried until it is fixed
+    private static boolean isRetryable(SQLException e) {
+        String state = e.getSQLState();
+        if (state == null) {
+            return true; // never reached the server
+        }
+        return switch (state.substring(0, Math.min(2, state.length()))) {
+            case "08", "28", "40", "53", "57" -> true; // connection, authorization, rollback, resources, shutdown
+            case "42" -> state.equals("42501") || state.equals("42P01") || state.equals("42883"); // privilege, missing table or function
+            default -> false;
+        };
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(Mutation mutation) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(mutation.id().getMostSignificantBits());
+            out.writeLong(mutation.id().getLeastSignificantBits());
+            out.writeByte(mutation.type().ordinal());
+            out.writeLong(mutation.enqueuedAt());
+            out.writeUTF(mutation.username());
+            out.writeByte(mutation.args().length);
+            for (String arg : mutation.args()) {
+                out.writeBoolean(arg != null);
+                if (arg != null) {
+                    out.writeUTF(arg);
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Mutation decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            UUID id = new UUID(in.readLong(), in.readLong());
+            Type type = Type.values()[in.readByte()];
+            long enqueuedAt = in.readLong();
+            String username = in.readUTF();
+            String[] args = new String[in.readByte()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = in.readBoolean() ? in.readUTF() : null;
+            }
+            return new Mutation(id, type, enqueuedAt, username, args);
+        }
+    }
+}
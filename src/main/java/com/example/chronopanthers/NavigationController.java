@@ -32,6 +32,7 @@ public class NavigationController {
 
     @FXML
     private void goToTimer(ActionEvent event) throws IOException {
+        leavePage();
         FXMLLoader loader = new FXMLLoader(getClass().getResource("timer.fxml"));
         Parent root = loader.load();
 
@@ -50,6 +51,7 @@ public class NavigationController {
 
     @FXML
     private void goToTaskManager(ActionEvent event) throws IOException {
+        leavePage();
         FXMLLoader loader = new FXMLLoader(getClass().getResource("taskManager.fxml"));
         Parent root = loader.load();
 
@@ -63,6 +65,7 @@ public class NavigationController {
 
     @FXML
     private void goToAIAgent(ActionEvent event) throws IOException {
+        leavePage();
         FXMLLoader loader = new FXMLLoader(getClass().getResource("AIAgent.fxml"));
         Parent root = loader.load();
 
@@ -76,6 +79,7 @@ public class NavigationController {
 
     @FXML
     private void goToStats(ActionEvent event) throws IOException {
+        leavePage();
         FXMLLoader loader = new FXMLLoader(getClass().getResource("productivity.fxml"));
         Parent root = loader.load();
 
@@ -97,13 +101,19 @@ public class NavigationController {
         alert.setContentText("Have you completed all your work?");
 
         if(alert.showAndWait().get() == ButtonType.OK){
-            TimerManager.getInstance().reset();
+            UserSession.logout();
             FXMLLoader loader = new FXMLLoader(getClass().getResource("loginPage.fxml"));
             Parent root = loader.load();
             switchScene(loader, root, "Login Page", "/com/example/chronopanthers/loginPage.css", event);
         }
     }
 
+    // Before the next page is loaded, so the listeners it registers in setCurrentUser are the ones left
+    private void leavePage() {
+        ChangeFeed.clearListeners(); // the page being left stops receiving live changes
+        DayClock.clearRolloverListener();
+    }
+
     private void switchScene(FXMLLoader loader, Parent root, String title, String cssFile, ActionEvent event) {
         try {
             Stage stage = getStageFromEvent(event);
@@ -0,0 +1,451 @@
+package com.example.chronopanthers;
+
+import java.sql.*;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+// Supabase backend, the default. Writes go through the MutationOutbox, reads come from the local SQLite replica
+// once it has synced and from the connection pool (or the read replica) before that.
+public class PostgresRepository implements TaskRepository, SessionRepository {
+
+    @Override
+    public void open() {
+        SchemaMigrations.migrateQuietly();
+    }
+
+    @Override
+    public void onLogin(String username) {
+        LocalReplica.startSync(username);
+        ChangeFeed.start(username);
+        AsyncDatabase.run(() -> TaskArchive.archiveCompleted(username));
+    }
+
+
+    // Borrow a pooled database connection, closing it returns it to the pool
+    private static Connection getConnection() throws SQLException {
+        try {
+            return ConnectionPool.getInstance().getConnection();
+        } catch (IllegalStateException e) {
+            throw new SQLException("PostgreSQL driver not found", e);
+        }
+    }
+
+    // Listing and count queries, served by the read replica when one is configured
+    private static Connection getReadConnection(String username) throws SQLException {
+        try {
+            return ConnectionPool.getReadConnection(username);
+        } catch (IllegalStateException e) {
+            throw new SQLException("PostgreSQL driver not found", e);
+        }
+    }
+
+    // Add a new task, journaled in the outbox and written to the database in the background
+    @Override
+    public boolean addTask(String username, Task task) {
+        if (MutationOutbox.getInstance().enqueue(MutationOutbox.Mutation.addTask(username, task))) {
+            LocalReplica.recordTaskAdded(username, task);
+            return true;
+        }
+
+        System.err.println("Error adding task: could not journal " + task.getTaskName());
+        return false;
+    }
+
+    // Adds still in the outbox or the replica count too, otherwise the same task could be queued twice
+    @Override
+    public boolean taskExists(String username, String taskName) {
+        if (MutationOutbox.getInstance().hasQueuedOpenTask(username, taskName)) {
+            return true;
+        }
+        if (LocalReplica.isReady(username)) {
+            return LocalReplica.hasOpenTask(username, taskName);
+        }
+
+        //String sql = "SELECT 1 FROM tasks WHERE username = ? AND task_name = ?";
+        String sql = "SELECT 1 FROM tasks WHERE username = ? AND LOWER(task_name) = LOWER(?) AND is_completed = false LIMIT 1";
+
+        try (Connection conn = getReadConnection(username);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, username);
+            pstmt.setString(2, taskName);
+
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next(); // true if a row exists
+
+        } catch (SQLException e) {
+            System.err.println("Error checking task existence: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Get all tasks for a specific user
+    @Override
+    public List<Task> getUserTasks(String username) {
+        if (LocalReplica.isReady(username)) {
+            return LocalReplica.getUserTasks(username);
+        }
+
+        List<Task> tasks = new ArrayList<>();
+        String sql = "SELECT id, task_name, task_type, priority, is_completed, due_date FROM tasks WHERE username = ? AND is_completed = false ORDER BY created_at DESC";
+
+        try (Connection conn = getReadConnection(username);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, username);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                tasks.add(toTask(rs));
+            }
+
+            //System.out.println("Retrieved " + tasks.size() + " tasks for user: " + username);
+
+        } catch (SQLException e) {
+            System.err.println("Error retrieving tasks: " + e.getMessage());
+        }
+
+        return tasks;
+    }
+
+    // Counts and the first page of open tasks in one query, the rest is paged in as the table scrolls
+    @Override
+    public TaskDashboard getTaskDashboard(String username, int pageSize) {
+        if (LocalReplica.isReady(username)) {
+            return LocalReplica.getTaskDashboard(username, pageSize);
+        }
+
+        boolean archive = TaskArchive.isAvailable();
+        String sql = """
+            WITH counts AS (
+                SELECT COUNT(*) AS total_count,
+                       COUNT(*) FILTER (WHERE is_completed) AS completed_count,
+                       COUNT(*) FILTER (WHERE NOT is_completed AND task_type = 'Deadline' AND due_date < CURRENT_DATE) AS overdue_count
+                FROM tasks
+                WHERE username = ?
+            ),
+            archived AS (
+                %s
+            ),
+            first_page AS (
+                SELECT id, created_at, task_name, task_type, priority, is_completed, due_date
+                FROM tasks
+                WHERE username = ? AND is_completed = false
+                ORDER BY created_at DESC, id DESC
+                LIMIT ?
+            )
+            SELECT p.*, c.total_count + a.archived_count AS total_count, c.completed_count + a.archived_count AS completed_count, c.overdue_count
+            FROM counts c
+            CROSS JOIN archived a
+            LEFT JOIN first_page p ON true
+            ORDER BY p.created_at DESC, p.id DESC
+        """.formatted(archive ? "SELECT COUNT(*) AS archived_count FROM tasks_archive WHERE username = ?" : "SELECT 0 AS archived_count");
+
+        List<Task> tasks = new ArrayList<>();
+        TaskPage.Cursor last = null;
+        boolean hasMore = false;
+        int totalCount = 0;
+        int completedCount = 0;
+        int overdueCount = 0;
+
+        try (Connection conn = getReadConnection(username);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            pstmt.setString(index++, username);
+            if (archive) {
+                pstmt.setString(index++, username);
+            }
+            pstmt.setString(index++, username);
+            pstmt.setInt(index, pageSize + 1); // one extra row tells us whether there is another page
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                totalCount = rs.getInt("total_count");
+                completedCount = rs.getInt("completed_count");
+                overdueCount = rs.getInt("overdue_count");
+
+                if (rs.getString("task_name") == null) {
+                    continue; // no open tasks, only the counts row came back
+                }
+                if (tasks.size() == pageSize) {
+                    hasMore = true;
+                    continue;
+                }
+                tasks.add(toTask(rs));
+                last = cursorOf(rs);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error retrieving task dashboard: " + e.getMessage());
+        }
+
+        return new TaskDashboard(new TaskPage(tasks, hasMore ? last : null), totalCount, completedCount, overdueCount);
+    }
+
+    // Open tasks after the cursor, newest first, a null cursor gives the first page
+    @Override
+    public TaskPage getUserTasksPage(String username, TaskPage.Cursor after, int pageSize) {
+        if (LocalReplica.isReady(username)) {
+            return LocalReplica.getUserTasksPage(username, after, pageSize);
+        }
+
+        // Row comparison on (created_at, id) walks the index from where the last page stopped, unlike OFFSET
+        String sql = "SELECT id, created_at, task_name, task_type, priority, is_completed, due_date FROM tasks " +
+                "WHERE username = ? AND is_completed = false" + (after == null ? "" : " AND (created_at, id) < (?, ?)") +
+                " ORDER BY created_at DESC, id DESC LIMIT ?";
+
+        try (Connection conn = getReadConnection(username);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            pstmt.setString(index++, username);
+            if (after != null) {
+                pstmt.setTimestamp(index++, Timestamp.valueOf(after.createdAt()));
+                pstmt.setLong(index++, after.id());
+            }
+            pstmt.setInt(index, pageSize + 1);
+            ResultSet rs = pstmt.executeQuery();
+
+            List<Task> tasks = new ArrayList<>();
+            TaskPage.Cursor last = null;
+            while (rs.next()) {
+                if (tasks.size() == pageSize) {
+                    return new TaskPage(tasks, last);
+                }
+                tasks.add(toTask(rs));
+                last = cursorOf(rs);
+            }
+            return new TaskPage(tasks, null);
+
+        } catch (SQLException e) {
+            System.err.println("Error retrieving task page: " + e.getMessage());
+        }
+
+        return new TaskPage(new ArrayList<>(), null);
+    }
+
+    private static TaskPage.Cursor cursorOf(ResultSet rs) throws SQLException {
+        return new TaskPage.Cursor(rs.getTimestamp("created_at").toLocalDateTime(), rs.getLong("id"));
+    }
+
+    private static Task toTask(ResultSet rs) throws SQLException {
+        String taskName = rs.getString("task_name");
+        Task.Priority priority = Task.Priority.valueOf(rs.getString("priority"));
+        Date dueDate = rs.getDate("due_date");
+
+        Task task;
+        if ("Deadline".equals(rs.getString("task_type")) && dueDate != null) {
+            task = new DeadlineTask(taskName, dueDate.toLocalDate(), priority);
+        } else {
+            task = new NormalTask(taskName, priority);
+        }
+
+        if (rs.getBoolean("is_completed")) {
+            task.complete();
+        }
+        task.setId(rs.getLong("id"));
+        return task;
+    }
+
+    // Update task completion status
+    @Override
+    public boolean updateTaskCompletion(String username, Task task, boolean completed) {
+        if (MutationOutbox.getInstance().enqueue(MutationOutbox.Mutation.completeTask(username, task, completed))) {
+            LocalReplica.recordTaskCompletion(username, task, completed);
+            return true;
+        }
+
+        System.err.println("Error updating task completion: could not journal " + task.getTaskName());
+        return false;
+    }
+
+    // Replace the name, type, priority and deadline of a task in place, it keeps its id and created_at
+    @Override
+    public boolean updateTask(String username, Task original, Task edited) {
+        if (MutationOutbox.getInstance().enqueue(MutationOutbox.Mutation.updateTask(username, original, edited))) {
+            LocalReplica.recordTaskUpdated(username, original, edited);
+            edited.setId(original.getId());
+            edited.setClientKey(original.getClientKey());
+            return true;
+        }
+
+        System.err.println("Error updating task: could not journal " + original.getTaskName());
+        return false;
+    }
+
+    // Delete a task
+    @Override
+    public boolean deleteTask(String username, Task task) {
+        if (MutationOutbox.getInstance().enqueue(MutationOutbox.Mutation.deleteTask(username, task))) {
+            LocalReplica.recordTaskDeleted(username, task);
+            return true;
+        }
+
+        System.err.println("Error deleting task: could not journal " + task.getTaskName());
+        return false;
+    }
+
+    // Get task count for a user
+    @Override
+    public int getUserTaskCount(String username) {
+        if (LocalReplica.isReady(username)) {
+            return LocalReplica.getTaskCount(username, null);
+        }
+
+        // Archived tasks are all completed, they still count towards the total
+        boolean archive = TaskArchive.isAvailable();
+        String sql = "SELECT (SELECT COUNT(*) FROM tasks WHERE username = ?)" +
+                (archive ? " + (SELECT COUNT(*) FROM tasks_archive WHERE username = ?)" : "") + " AS count";
+
+        try (Connection conn = getReadConnection(username);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, username);
+            if (archive) {
+                pstmt.setString(2, username);
+            }
+            ResultSet rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getInt("count");
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error getting task count: " + e.getMessage());
+        }
+
+        return 0;
+    }
+
+    // Get completed task count for a user
+    @Override
+    public int getUserCompletedTaskCount(String username) {
+        if (LocalReplica.isReady(username)) {
+            return LocalReplica.getTaskCount(username, true);
+        }
+
+        boolean archive = TaskArchive.isAvailable();
+        String sql = "SELECT (SELECT COUNT(*) FROM tasks WHERE username = ? AND is_completed = true)" +
+                (archive ? " + (SELECT COUNT(*) FROM tasks_archive WHERE username = ?)" : "") + " AS count";
+
+        try (Connection conn = getReadConnection(username);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, username);
+            if (archive) {
+                pstmt.setString(2, username);
+            }
+            ResultSet rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getInt("count");
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error getting completed task count: " + e.getMessage());
+        }
+
+        return 0;
+    }
+
+    // Test database connection
+    @Override
+    public boolean testConnection() {
+        try (Connection conn = getConnection()) {
+            return conn != null && !conn.isClosed();
+        } catch (SQLException e) {
+            System.err.println("Database connection test failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Get overdue tasks for a user
+    @Override
+    public List<Task> getOverdueTasks(String username) {
+        if (LocalReplica.isReady(username)) {
+            return LocalReplica.getOverdueTasks(username);
+        }
+
+        List<Task> overdueTasks = new ArrayList<>();
+        String sql = "SELECT id, task_name, task_type, priority, is_completed, due_date FROM tasks " +
+                "WHERE username = ? AND task_type = 'Deadline' AND due_date < CURRENT_DATE AND is_completed = false " +
+                "ORDER BY due_date ASC";
+
+        try (Connection conn = getReadConnection(username);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, username);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                overdueTasks.add(toTask(rs));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error getting overdue tasks: " + e.getMessage());
+        }
+
+        return overdueTasks;
+    }
+
+    // Sessions
+
+    // One outbox entry, drained as a single call to the record_pomodoro function.
+    // The totals come from the replica straight away, or from the server once the entry has been applied
+    @Override
+    public int[] recordSession(String username, String sessionType, int duration) {
+        if (MutationOutbox.getInstance().enqueue(MutationOutbox.Mutation.recordSession(username, sessionType, duration))) {
+            LocalReplica.recordSessionLogged(username, sessionType, duration);
+            LocalReplica.recordSessionCount(username, sessionType);
+        } else {
+            System.err.println("Error recording " + sessionType + " session: could not journal the change");
+        }
+        return getSessionCounts(username);
+    }
+
+    @Override
+    public int[] getSessionCounts(String username) {
+        if (LocalReplica.isReady(username)) {
+            return LocalReplica.getSessionCounts(username);
+        }
+
+        String sql = "SELECT workSessions, breakSessions FROM loginDetails WHERE username = ?";
+        int[] counts = {0, 0};
+
+        try (Connection conn = getReadConnection(username);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, username);
+            ResultSet rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                counts[0] = rs.getInt("workSessions");
+                counts[1] = rs.getInt("breakSessions");
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error getting session counts: " + e.getMessage());
+        }
+
+        return counts;
+    }
+
+    @Override
+    public Map<Analytics.Series, Map<LocalDate, Integer>> getSeries(String username, LocalDate from, LocalDate to,
+                                                                    Analytics.Granularity granularity, List<Analytics.Series> series) {
+        // The replica has no archived tasks, completions older than the archive window are counted on the server
+        boolean replicaReady = LocalReplica.isReady(username);
+        if (replicaReady && !(TaskArchive.mayBeArchived(from) && series.stream().anyMatch(s -> s.metric() == Analytics.Metric.TASKS_COMPLETED))) {
+            return LocalReplica.getSeries(username, from, to, granularity, series);
+        }
+
+        try (Connection conn = getReadConnection(username)) {
+            return Analytics.query(conn, false, username, from, to, granularity, series);
+        } catch (SQLException e) {
+            System.err.println("Error loading productivity data: " + e.getMessage());
+            return replicaReady ? LocalReplica.getSeries(username, from, to, granularity, series) : new LinkedHashMap<>();
+        }
+    }
+}
@@ -14,10 +14,9 @@ import javafx.stage.Stage;
 import java.io.IOException;
 import java.net.URL;
 import java.time.LocalDate;
-import java.time.Month;
-import java.time.Year;
 import java.time.format.TextStyle;
 import java.util.*;
+import java.util.function.Function;
 
 public class Productivity implements Initializable {
     @FXML
@@ -35,7 +34,14 @@ public class Productivity implements Initializable {
     @FXML
     private NavigationController navigationBarController;
 
+    private static final Analytics.Series TASKS_COMPLETED = Analytics.Series.tasksCompleted();
+    private static final Analytics.Series WORK_SESSIONS = Analytics.Series.sessions("work");
+    private static final Analytics.Series WORK_MINUTES = Analytics.Series.minutes("work");
+    private static final Analytics.Series BREAK_MINUTES = Analytics.Series.minutes("break");
+    static final List<Analytics.Series> CHART_SERIES = List.of(TASKS_COMPLETED, WORK_SESSIONS, WORK_MINUTES, BREAK_MINUTES);
+
     private String currentUsername;
+    private int chartRequest = 0; // bumped on every view switch so a slower, older load cannot overwrite a newer one
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -56,15 +62,17 @@ public class Productivity implements Initializable {
         weekly.setSelected(true);
 
         // Add listener for toggle group changes
-        statsPer.selectedToggleProperty().addListener((obs, oldValue, newValue) -> {
-            if (weekly.isSelected()) {
-                loadWeeklyChart();
-            } else if (monthly.isSelected()){
-                loadMonthlyChart();
-            } else {
-                loadYearlyChart();
-            }
-        });
+        statsPer.selectedToggleProperty().addListener((obs, oldValue, newValue) -> reloadSelectedChart());
+    }
+
+    private void reloadSelectedChart() {
+        if (weekly.isSelected()) {
+            loadWeeklyChart();
+        } else if (monthly.isSelected()){
+            loadMonthlyChart();
+        } else {
+            loadYearlyChart();
+        }
     }
 
     public void setCurrentUsername(String username) {
@@ -75,8 +83,10 @@ public class Productivity implements Initializable {
             navigationBarController.setCurrentUser(username);
         }
 
-        // Load the charts with the correct username
+        // Load the charts with the correct username, and again whenever a session or task changes on any device
         loadWeeklyChart();
+        ChangeFeed.setChartListener(this::reloadSelectedChart);
+        DayClock.setRolloverListener(this::reloadSelectedChart); // the ranges end today, move them on at midnight
 
         //System.out.println("Productivity: Username set to: " + username);
     }
@@ -94,11 +104,9 @@ public class Productivity implements Initializable {
             return;
         }
 
-        //System.out.println("Loading weekly charts for user: " + currentUsername);
-        updateTaskBarByWeek(currentUsername);
-        updateWorkChartByWeek(currentUsername);
-        updateDurationChartByWeek(currentUsername);
-        updateSessionPieChartByWeek(currentUsername);
+        LocalDate today = DayClock.today();
+        loadCharts(today.minusDays(6), today, Analytics.Granularity.DAY, "Last 7 Days", "Days",
+                date -> date.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.getDefault())); // "Mon"
     }
 
     // UI rendering - monthly
@@ -108,11 +116,9 @@ public class Productivity implements Initializable {
             return;
         }
 
-        //System.out.println("Loading monthly charts for user: " + currentUsername);
-        updateTaskBarByMonth(currentUsername);
-        updateWorkChartByMonth(currentUsername);
-        updateDurationChartByMonth(currentUsername);
-        updateSessionPieChartByMonth(currentUsername);
+        LocalDate today = DayClock.today();
+        loadCharts(today.minusDays(29), today, Analytics.Granularity.DAY, "Last 30 Days", "Days",
+                date -> date.getDayOfMonth() + "/" + date.getMonthValue()); // "15/7"
     }
 
     // UI rendering - by year
@@ -122,341 +128,80 @@ public class Productivity implements Initializable {
             return;
         }
 
-        //System.out.println("Loading yearly charts for user: " + currentUsername);
-        updateTaskBarByYear(currentUsername);
-        updateWorkChartByYear(currentUsername);
-        updateDurationChartByYear(currentUsername);
-        updateSessionPieChartByYear(currentUsername);
-    }
-
-    // Tasks
-    public void updateTaskBarByWeek(String username) {
-        Map<String, Integer> sessionsPerDay = TaskDatabaseManager.getTasksCompletedLast7Days(username);
-        XYChart.Series<String, Integer> series = new XYChart.Series<>();
-        series.setName("Last 7 Days");
-
-        LocalDate today = LocalDate.now();
-        List<String> days = new ArrayList<>();
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            String dbKey = date.toString();  //"2025-07-15"
-            String dayOfWeek = date.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.getDefault()); // Mon
-            days.add(dayOfWeek);
-
-            int count = sessionsPerDay.getOrDefault(dbKey, 0); // use 0 if not found
-            series.getData().add(new XYChart.Data<>(dayOfWeek, count));
-        }
-
-        taskChart.getData().clear();
-        taskChart.getData().add(series);
-        resetTaskAxis("Days", days, 90);
+        LocalDate startOfYear = DayClock.today().withDayOfYear(1);
+        loadCharts(startOfYear, startOfYear.plusYears(1).minusDays(1), Analytics.Granularity.MONTH, "This Year", "Months",
+                date -> date.getMonth().getDisplayName(TextStyle.SHORT, Locale.getDefault())); // "Jul"
     }
 
-    public void updateTaskBarByMonth(String username) {
-        Map<String, Integer> sessionsPerDay = TaskDatabaseManager.getTasksCompletedLast30Days(username);
-        XYChart.Series<String, Integer> series = new XYChart.Series<>();
-        series.setName("Last 30 Days");
-
-        LocalDate today = LocalDate.now();
-        List<String> days = new ArrayList<>();
-        for (int i = 29; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            String dbKey = date.toString();  // "2025-07-15"
-            String day = date.getDayOfMonth() + "/" + date.getMonthValue();
-            days.add(day);
-
-            int count = sessionsPerDay.getOrDefault(dbKey, 0); // use 0 if not found
-            series.getData().add(new XYChart.Data<>(day, count));
-        }
-
-        taskChart.getData().clear();
-        taskChart.getData().add(series);
-        resetTaskAxis("Days", days, 90);
+    // All four charts come from one query in the background, every bucket in the range is already present
+    private void loadCharts(LocalDate from, LocalDate to, Analytics.Granularity granularity, String title, String axisLabel,
+                            Function<LocalDate, String> labeller) {
+        int requestedFor = ++chartRequest;
+        AsyncDatabase.onFx(AsyncDatabase.getSeries(currentUsername, from, to, granularity, CHART_SERIES), data -> {
+            if (requestedFor == chartRequest) {
+                showCharts(data, title, axisLabel, labeller);
+            }
+        });
     }
 
-    public void updateTaskBarByYear(String username) {
-        Map<String, Integer> sessionsPerMonth = TaskDatabaseManager.getTasksCompletedThisYearByMonth(username);
-        XYChart.Series<String, Integer> series = new XYChart.Series<>();
-        series.setName("This Year");
-
-        List<String> months = new ArrayList<>();
-        for (int month = 1; month <= 12; month++) {
-            String monthStr = String.format("%d-%02d", Year.now().getValue(), month); // "2025-07"
-            String label = Month.of(month).getDisplayName(TextStyle.SHORT, Locale.getDefault()); // "Jul"
-            months.add(label);
-
-            int count = sessionsPerMonth.getOrDefault(monthStr, 0);
-            series.getData().add(new XYChart.Data<>(label, count));
+    private void showCharts(Map<Analytics.Series, Map<LocalDate, Integer>> data, String title, String axisLabel,
+                            Function<LocalDate, String> labeller) {
+        List<String> labels = new ArrayList<>();
+        for (LocalDate bucket : data.getOrDefault(TASKS_COMPLETED, Map.of()).keySet()) {
+            labels.add(labeller.apply(bucket));
         }
 
+        // Tasks
         taskChart.getData().clear();
-        taskChart.getData().add(series);
-
-        resetTaskAxis("Months", months, 90);
-    }
-
-    // Work Sessions
-    public void updateWorkChartByWeek(String username) {
-        Map<String, Integer> sessionsPerDay = SupabaseConnection.getWorkSessionLast7Days(username);
-        XYChart.Series<String, Integer> series = new XYChart.Series<>();
-        series.setName("Last 7 Days");
-
-        LocalDate today = LocalDate.now();
-        List<String> dayLabels = new ArrayList<>();
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            String dbKey = date.toString(); // "2025-07-15"
-            String dayOfWeek = date.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.getDefault()); // "Mon"
-            dayLabels.add(dayOfWeek);
-
-            int count = sessionsPerDay.getOrDefault(dbKey, 0); // use 0 if not found
-            series.getData().add(new XYChart.Data<>(dayOfWeek, count));
-        }
-
-        workSessionsChart.getData().clear();
-        workSessionsChart.getData().add(series);
-        resetWorkSessionAxis("Day", dayLabels, 90);
-    }
-
-    public void updateWorkChartByMonth(String username) {
-        Map<String, Integer> sessionsPerDay = SupabaseConnection.getWorkSessionLast30Days(username);
-        XYChart.Series<String, Integer> series = new XYChart.Series<>();
-        series.setName("Last 30 Days");
-
-        LocalDate today = LocalDate.now();
-        List<String> days = new ArrayList<>();
-        for (int i = 29; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            String dbKey = date.toString();  // "2025-07-15"
-            String day = date.getDayOfMonth() + "/" + date.getMonthValue();
-            days.add(day);
-
-            int count = sessionsPerDay.getOrDefault(dbKey, 0); // use 0 if not found
-            series.getData().add(new XYChart.Data<>(day, count));
-        }
-
-        workSessionsChart.getData().clear();
-        workSessionsChart.getData().add(series);
-        resetWorkSessionAxis("Days", days, 90);
-    }
-
-    public void updateWorkChartByYear(String username) {
-        Map<String, Integer> sessionsPerMonth = SupabaseConnection.getWorkSessionThisYearByMonth(username);
-        XYChart.Series<String, Integer> series = new XYChart.Series<>();
-        series.setName("This Year");
-
-        List<String> months = new ArrayList<>();
-        for (int month = 1; month <= 12; month++) {
-            String monthStr = String.format("%d-%02d", Year.now().getValue(), month);  // "2025-07"
-            String label = Month.of(month).getDisplayName(TextStyle.SHORT, Locale.getDefault()); // "Jul"
-            months.add(label);
-
-            int count = sessionsPerMonth.getOrDefault(monthStr, 0);
-            series.getData().add(new XYChart.Data<>(label, count));
-        }
+        taskChart.getData().add(toSeries(title, data.get(TASKS_COMPLETED), labeller));
+        resetTaskAxis(axisLabel, labels, 90);
 
+        // Work Sessions
         workSessionsChart.getData().clear();
-        workSessionsChart.getData().add(series);
-
-        resetWorkSessionAxis("Months", months, 90);
-    }
-
-    // Duration
-    public void updateDurationChartByWeek(String username) {
-        Map<String, Integer> sessionsPerDay = SupabaseConnection.getDurationLast7Days(username);
-        XYChart.Series<String, Integer> series = new XYChart.Series<>();
-        series.setName("Last 7 Days");
-
-        LocalDate today = LocalDate.now();
-        List<String> dayLabels = new ArrayList<>();
-
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            String dbKey = date.toString();  // "2025-07-15"
-            String dayOfWeek = date.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.getDefault()); // "Mon"
-            dayLabels.add(dayOfWeek);
-
-            int count = sessionsPerDay.getOrDefault(dbKey, 0); // use 0 if not found
-            series.getData().add(new XYChart.Data<>(dayOfWeek, count));
-        }
+        workSessionsChart.getData().add(toSeries(title, data.get(WORK_SESSIONS), labeller));
+        resetWorkSessionAxis(axisLabel, labels, 90);
 
+        // Duration
         durationChart.getData().clear();
-        durationChart.getData().add(series);
+        durationChart.getData().add(toSeries(title, data.get(WORK_MINUTES), labeller));
+        resetDurationAxis(axisLabel, labels, 90);
 
-        resetDurationAxis("Day", dayLabels, 90);
+        updateSessionPieChart(title, total(data.get(WORK_MINUTES)), total(data.get(BREAK_MINUTES)));
     }
 
-    public void updateDurationChartByMonth(String username) {
-        Map<String, Integer> sessionsPerDay = SupabaseConnection.getDurationLast30Days(username);
+    private XYChart.Series<String, Integer> toSeries(String name, Map<LocalDate, Integer> values, Function<LocalDate, String> labeller) {
         XYChart.Series<String, Integer> series = new XYChart.Series<>();
-        series.setName("Last 30 Days");
-
-        LocalDate today = LocalDate.now();
-        List<String> days = new ArrayList<>();
-        for (int i = 29; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            String dbKey = date.toString();  // "2025-07-15"
-            String day = date.getDayOfMonth() + "/" + date.getMonthValue();
-            days.add(day);
-
-            int count = sessionsPerDay.getOrDefault(dbKey, 0); // use 0 if not found
-            series.getData().add(new XYChart.Data<>(day, count));
-        }
-
-        durationChart.getData().clear();
-        durationChart.getData().add(series);
-
-        resetDurationAxis("Days", days, 90);
-    }
-
-    public void updateDurationChartByYear(String username) {
-        Map<String, Integer> sessionsPerMonth = SupabaseConnection.getDurationThisYearByMonth(username);
-        XYChart.Series<String, Integer> series = new XYChart.Series<>();
-        series.setName("This Year");
-
-        List<String> months = new ArrayList<>();
-        for (int month = 1; month <= 12; month++) {
-            String monthStr = String.format("%d-%02d", Year.now().getValue(), month);  // "2025-07"
-            String label = Month.of(month).getDisplayName(TextStyle.SHORT, Locale.getDefault()); // "Jul"
-            months.add(label);
-
-            int count = sessionsPerMonth.getOrDefault(monthStr, 0);
-            series.getData().add(new XYChart.Data<>(label, count));
-        }
-
-        durationChart.getData().clear();
-        durationChart.getData().add(series);
-
-        resetDurationAxis("Months", months, 90);
-    }
-
-    // Duration Pie Chart
-    public void updateSessionPieChartByWeek(String username) {
-        if (username == null || username.isEmpty()) {
-            System.out.println("Warning: Username is null or empty for pie chart update");
-            return;
-        }
-
-        try {
-            Map<String, Integer> durations = SupabaseConnection.getTotalDurationsByType7Days(username);
-            if (durations == null) {
-                durations = new HashMap<>();
-            }
-
-            int workDuration = durations.getOrDefault("work", 0);
-            int breakDuration = durations.getOrDefault("break", 0);
-
-            // Use Platform.runLater to ensure UI updates happen on JavaFX thread
-            javafx.application.Platform.runLater(() -> {
-                try {
-                    // Create new data
-                    ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
-
-                    // Add data even if it's 0 to maintain chart structure
-                    pieChartData.add(new PieChart.Data("Work", Math.max(workDuration, 0)));
-                    pieChartData.add(new PieChart.Data("Break", Math.max(breakDuration, 0)));
-
-                    // Set the data and title
-                    durationPieChart.setData(pieChartData);
-                    durationPieChart.setTitle("Last 7 Days");
-
-                    // Force layout update
-                    durationPieChart.layout();
-
-                    //System.out.println("Updated weekly pie chart - Work: " + workDuration + ", Break: " + breakDuration);
-                } catch (Exception e) {
-                    System.err.println("Error updating pie chart UI: " + e.getMessage());
-                }
-            });
-        } catch (Exception e) {
-            System.err.println("Error updating weekly pie chart: " + e.getMessage());
-            e.printStackTrace();
+        series.setName(name);
+        if (values != null) {
+            values.forEach((bucket, value) -> series.getData().add(new XYChart.Data<>(labeller.apply(bucket), value)));
         }
+        return series;
     }
 
-    public void updateSessionPieChartByMonth(String username) {
-        if (username == null || username.isEmpty()) {
-            System.out.println("Warning: Username is null or empty for pie chart update");
-            return;
-        }
-
-        try {
-            Map<String, Integer> durations = SupabaseConnection.getTotalDurationsByType30Days(username);
-            if (durations == null) {
-                durations = new HashMap<>();
+    private int total(Map<LocalDate, Integer> values) {
+        int total = 0;
+        if (values != null) {
+            for (int value : values.values()) {
+                total += value;
             }
-
-            int workDuration = durations.getOrDefault("work", 0);
-            int breakDuration = durations.getOrDefault("break", 0);
-
-            // Use Platform.runLater to ensure UI updates happen on JavaFX thread
-            javafx.application.Platform.runLater(() -> {
-                try {
-                    // Create new data
-                    ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
-
-                    // Add data even if it's 0 to maintain chart structure
-                    pieChartData.add(new PieChart.Data("Work", Math.max(workDuration, 0)));
-                    pieChartData.add(new PieChart.Data("Break", Math.max(breakDuration, 0)));
-
-                    // Set the data and title
-                    durationPieChart.setData(pieChartData);
-                    durationPieChart.setTitle("Last 30 Days");
-
-                    // Force layout update
-                    durationPieChart.layout();
-
-                    //System.out.println("Updated monthly pie chart - Work: " + workDuration + ", Break: " + breakDuration);
-                } catch (Exception e) {
-                    System.err.println("Error updating pie chart UI: " + e.getMessage());
-                }
-            });
-        } catch (Exception e) {
-            System.err.println("Error updating monthly pie chart: " + e.getMessage());
-            e.printStackTrace();
         }
+        return total;
     }
 
-    public void updateSessionPieChartByYear(String username) {
-        if (username == null || username.isEmpty()) {
-            System.out.println("Warning: Username is null or empty for pie chart update");
-            return;
-        }
-
+    // Duration Pie Chart
+    private void updateSessionPieChart(String title, int workDuration, int breakDuration) {
         try {
-            Map<String, Integer> durations = SupabaseConnection.getTotalDurationsByTypeYear(username);
-            if (durations == null) {
-                durations = new HashMap<>();
-            }
-
-            int workDuration = durations.getOrDefault("work", 0);
-            int breakDuration = durations.getOrDefault("break", 0);
-
-            // Use Platform.runLater to ensure UI updates happen on JavaFX thread
-            javafx.application.Platform.runLater(() -> {
-                try {
-                    // Create new data
-                    ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
-
-                    // Add data even if it's 0 to maintain chart structure
-                    pieChartData.add(new PieChart.Data("Work", Math.max(workDuration, 0)));
-                    pieChartData.add(new PieChart.Data("Break", Math.max(breakDuration, 0)));
-
-                    // Set the data and title
-                    durationPieChart.setData(pieChartData);
-                    durationPieChart.setTitle("This Year");
+            ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
 
-                    // Force layout update
-                    durationPieChart.layout();
+            // Add data even if it's 0 to maintain chart structure
+            pieChartData.add(new PieChart.Data("Work", Math.max(workDuration, 0)));
+            pieChartData.add(new PieChart.Data("Break", Math.max(breakDuration, 0)));
 
-                    //System.out.println("Updated yearly pie chart - Work: " + workDuration + ", Break: " + breakDuration);
-                } catch (Exception e) {
-                    System.err.println("Error updating pie chart UI: " + e.getMessage());
-                }
-            });
+            durationPieChart.setData(pieChartData);
+            durationPieChart.setTitle(title);
+            durationPieChart.layout();
         } catch (Exception e) {
-            System.err.println("Error updating yearly pie chart: " + e.getMessage());
-            e.printStackTrace();
+            System.err.println("Error updating pie chart UI: " + e.getMessage());
         }
     }
 
@@ -502,7 +247,7 @@ public class Productivity implements Initializable {
         alert.setContentText("Have you completed all your work?");
 
         if (alert.showAndWait().get() == ButtonType.OK) {
-            TimerManager.getInstance().reset();
+            UserSession.logout();
 
             try {
                 Parent root = FXMLLoader.load(getClass().getResource("loginPage.fxml"));
@@ -0,0 +1,47 @@
+package com.example.chronopanthers;
+
+// Picks the storage backend from CHRONOPANTHERS_BACKEND in .env or the environment.
+// postgres is the real app, sqlite is a single local file and memory keeps everything in the process,
+// so the controllers and AIService can run against either for tests and benchmarks.
+public class Repositories {
+    private static TaskRepository tasks;
+    private static SessionRepository sessions;
+
+    public static synchronized TaskRepository tasks() {
+        if (tasks == null) {
+            useConfiguredBackend();
+        }
+        return tasks;
+    }
+
+    public static synchronized SessionRepository sessions() {
+        if (sessions == null) {
+            useConfiguredBackend();
+        }
+        return sessions;
+    }
+
+    // Swap the backend in code, for tests and benchmarks
+    public static synchronized void use(TaskRepository taskRepository, SessionRepository sessionRepository) {
+        tasks = taskRepository;
+        sessions = sessionRepository;
+    }
+
+    private static void useConfiguredBackend() {
+        switch (DatabaseConfig.getBackend()) {
+            case "memory" -> {
+                InMemoryRepository repository = new InMemoryRepository();
+                use(repository, repository);
+            }
+            case "sqlite" -> {
+                SqliteRepository repository = new SqliteRepository(DatabaseConfig.getSqlitePath());
+                use(repository, repository);
+            }
+            case "postgres" -> {
+                PostgresRepository repository = new PostgresRepository();
+                use(repository, repository);
+            }
+            default -> throw new IllegalStateException("Unknown CHRONOPANTHERS_BACKEND: " + DatabaseConfig.getBackend());
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.chronopanthers;
+
+import java.sql.*;
+import java.util.List;
+
+// Versioned schema changes, applied once per database at startup and recorded in schema_migrations.
+// New changes are added as a new version at the end of MIGRATIONS, applied versions are never edited.
+public class SchemaMigrations {
+    private static final long MIGRATION_LOCK_KEY = 0x43504D4947L; // advisory lock shared by every client
+
+    private record Migration(int version, String description, String... statements) {}
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Idempotency keys for the write-behind outbox",
+                    "CREATE TABLE IF NOT EXISTS applied_mutations (mutation_id UUID PRIMARY KEY, applied_at TIMESTAMP NOT NULL DEFAULT now())"),
+
+            new Migration(2, "Indexes for the task and session queries",
+                    // getUserTasks / getTaskDashboard: open tasks newest first
+                    "CREATE INDEX IF NOT EXISTS idx_tasks_user_open_created ON tasks (username, created_at DESC) WHERE is_completed = false",
+                    // taskExists: case-insensitive name lookup among open tasks
+                    "CREATE INDEX IF NOT EXISTS idx_tasks_user_open_lower_name ON tasks (username, LOWER(task_name)) WHERE is_completed = false",
+                    // updateTaskCompletion / deleteTask and the per-user counts
+                    "CREATE INDEX IF NOT EXISTS idx_tasks_user_name ON tasks (username, task_name)",
+                    // getOverdueTasks
+                    "CREATE INDEX IF NOT EXISTS idx_tasks_user_open_due ON tasks (username, due_date) WHERE is_completed = false AND task_type = 'Deadline'",
+                    // tasks completed per day / month
+                    "CREATE INDEX IF NOT EXISTS idx_tasks_user_completed_updated ON tasks (username, updated_at) WHERE is_completed = true",
+                    // work sessions and durations per day / month
+                    "CREATE INDEX IF NOT EXISTS idx_sessionslog_user_type_created ON sessionslog (username, session_type, created_at) INCLUDE (duration)",
+                    // durations by type for the pie chart
+                    "CREATE INDEX IF NOT EXISTS idx_sessionslog_user_created ON sessionslog (username, created_at) INCLUDE (session_type, duration)"),
+
+            new Migration(3, "Per-user daily session rollup maintained on insert",
+                    """
+                    CREATE TABLE IF NOT EXISTS session_daily_rollup (
+                        username TEXT NOT NULL,
+                        day DATE NOT NULL,
+                        session_type TEXT NOT NULL,
+                        session_count INT NOT NULL DEFAULT 0,
+                        total_duration INT NOT NULL DEFAULT 0,
+                        PRIMARY KEY (username, day, session_type)
+                    )
+                    """,
+                    """
+                    CREATE OR REPLACE FUNCTION sessionslog_rollup() RETURNS trigger AS $$
+                    BEGIN
+                        INSERT INTO session_daily_rollup (username, day, session_type, session_count, total_duration)
+                        VALUES (NEW.username, NEW.created_at::date, NEW.session_type, 1, NEW.duration)
+                        ON CONFLICT (username, day, session_type) DO UPDATE
+                        SET session_count = session_daily_rollup.session_count + 1,
+                            total_duration = session_daily_rollup.total_duration + EXCLUDED.total_duration;
+                        RETURN NULL;
+                    END
+                    $$ LANGUAGE plpgsql
+                    """,
+                    // Block inserts while backfilling so no session is counted twice or missed
+                    "LOCK TABLE sessionslog IN SHARE ROW EXCLUSIVE MODE",
+                    "DROP TRIGGER IF EXISTS sessionslog_rollup ON sessionslog",
+                    "CREATE TRIGGER sessionslog_rollup AFTER INSERT ON sessionslog FOR EACH ROW EXECUTE FUNCTION sessionslog_rollup()",
+                    """
+                    INSERT INTO session_daily_rollup (username, day, session_type, session_count, total_duration)
+                    SELECT username, created_at::date, session_type, COUNT(*), COALESCE(SUM(duration), 0)
+                    FROM sessionslog
+                    GROUP BY username, created_at::date, session_type
+                    ON CONFLICT (username, day, session_type) DO NOTHING
+                    """),
+
+            new Migration(4, "Keyset paging index for open tasks",
+                    // getUserTasksPage / getTaskDashboard: (created_at, id) < (?, ?) newest first, replaces the created_at-only index
+                    "CREATE INDEX IF NOT EXISTS idx_tasks_user_open_created_id ON tasks (username, created_at DESC, id DESC) WHERE is_completed = false",
+                    "DROP INDEX IF EXISTS idx_tasks_user_open_created"),
+
+            new Migration(5, "Change feed notifications for tasks and sessions",
+                    // One notification per user per statement on the channel ChangeFeed listens to.
+                    // Payloads over the 8000 byte NOTIFY limit become a REFRESH, so bulk imports do not flood the channel
+                    """
+                    CREATE OR REPLACE FUNCTION change_feed_send(feed_user TEXT, source TEXT, op TEXT, rows JSON) RETURNS void AS $$
+                    DECLARE
+                        payload TEXT := json_build_object('source', source, 'op', op, 'rows', rows)::text;
+                    BEGIN
+                        IF octet_length(payload) > 7900 THEN
+                            payload := json_build_object('source', source, 'op', 'REFRESH')::text;
+                        END IF;
+                        PERFORM pg_notify('feed_' || md5(feed_user), payload);
+                    END
+                    $$ LANGUAGE plpgsql
+                    """,
+                    """
+                    CREATE OR REPLACE FUNCTION tasks_change_feed() RETURNS trigger AS $$
+                    DECLARE
+                        change RECORD;
+                    BEGIN
+                        IF TG_OP = 'DELETE' THEN
+                            FOR change IN SELECT username, json_agg(row_to_json(r)) AS rows FROM old_rows r GROUP BY username LOOP
+                                PERFORM change_feed_send(change.username, 'tasks', 'DELETE', change.rows);
+                            END LOOP;
+                        ELSE
+                            FOR change IN SELECT username, json_agg(row_to_json(r)) AS rows FROM new_rows r GROUP BY username LOOP
+                                PERFORM change_feed_send(change.username, 'tasks', 'UPSERT', change.rows);
+                            END LOOP;
+                        END IF;
+                        RETURN NULL;
+                    END
+                    $$ LANGUAGE plpgsql
+                    """,
+                    """
+                    CREATE OR REPLACE FUNCTION sessionslog_change_feed() RETURNS trigger AS $$
+                    DECLARE
+                        change RECORD;
+                    BEGIN
+                        FOR change IN
+                            SELECT username, json_agg(json_build_object('session_type', session_type, 'duration', duration, 'created_at', created_at)) AS rows
+                            FROM new_rows GROUP BY username
+                        LOOP
+                            PERFORM change_feed_send(change.username, 'sessions', 'INSERT', change.rows);
+                        END LOOP;
+                        RETURN NULL;
+                    END
+                    $$ LANGUAGE plpgsql
+                    """,
+                    // Transition tables allow only one event per trigger
+                    "DROP TRIGGER IF EXISTS tasks_change_feed_insert ON tasks",
+                    "CREATE TRIGGER tasks_change_feed_insert AFTER INSERT ON tasks REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION tasks_change_feed()",
+                    "DROP TRIGGER IF EXISTS tasks_change_feed_update ON tasks",
+                    "CREATE TRIGGER tasks_change_feed_update AFTER UPDATE ON tasks REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION tasks_change_feed()",
+                    "DROP TRIGGER IF EXISTS tasks_change_feed_delete ON tasks",
+                    "CREATE TRIGGER tasks_change_feed_delete AFTER DELETE ON tasks REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION tasks_change_feed()",
+                    "DROP TRIGGER IF EXISTS sessionslog_change_feed ON sessionslog",
+                    "CREATE TRIGGER sessionslog_change_feed AFTER INSERT ON sessionslog REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION sessionslog_change_feed()"),
+
+            new Migration(6, "Monthly partition maintenance for sessionslog",
+                    // Rebuilding sessionslog as a partitioned table rewrites it under an exclusive lock, so that is an
+                    // operator step (SessionsLogPartitioning) and never runs at client startup. Until it has been run
+                    // the table is not partitioned and there is nothing to maintain. Databases that applied the first
+                    // version of this migration were partitioned by it and keep that function
+                    """
+                    CREATE OR REPLACE FUNCTION sessionslog_ensure_partitions(from_month DATE, to_month DATE) RETURNS void AS $$
+                    DECLARE
+                        month_start DATE := date_trunc('month', from_month)::date;
+                        month_end DATE;
+                        partition_name TEXT;
+                    BEGIN
+                        IF NOT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('sessionslog')) THEN
+                            RETURN;
+                        END IF;
+                        PERFORM pg_advisory_xact_lock(hashtext('sessionslog_ensure_partitions'));
+                        WHILE month_start <= to_month LOOP
+                            month_end := (month_start + INTERVAL '1 month')::date;
+                            partition_name := 'sessionslog_' || to_char(month_start, 'YYYY_MM');
+                            IF to_regclass(partition_name) IS NULL THEN
+                                EXECUTE format('CREATE TABLE %I (LIKE sessionslog INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+                                EXECUTE format('WITH moved AS (DELETE FROM sessionslog_default WHERE created_at >= %L AND created_at < %L RETURNING *) '
+                                               'INSERT INTO %I SELECT * FROM moved', month_start, month_end, partition_name);
+                                EXECUTE format('ALTER TABLE sessionslog ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                                               partition_name, month_start, month_end);
+                            END IF;
+                            month_start := month_end;
+                        END LOOP;
+                    END
+                    $$ LANGUAGE plpgsql
+                    """),
+
+            new Migration(7, "Record a pomodoro session and its counter in one call",
+                    // The log row and the counter change in the same statement, so they can never get out of step
+                    """
+                    CREATE OR REPLACE FUNCTION record_pomodoro(p_username TEXT, p_session_type TEXT, p_duration INT, p_created_at TIMESTAMP)
+                    RETURNS TABLE (work_sessions INT, break_sessions INT) AS $$
+                    BEGIN
+                        IF p_session_type NOT IN ('work', 'break') THEN
+                            RAISE EXCEPTION 'Unknown session type %', p_session_type USING ERRCODE = '22023';
+                        END IF;
+
+                        INSERT INTO sessionslog (username, session_type, duration, created_at)
+                        VALUES (p_username, p_session_type, p_duration, p_created_at);
+
+                        RETURN QUERY
+                        UPDATE loginDetails
+                        SET workSessions = workSessions + (p_session_type = 'work')::int,
+                            breakSessions = breakSessions + (p_session_type = 'break')::int
+                        WHERE username = p_username
+                        RETURNING loginDetails.workSessions::int, loginDetails.breakSessions::int;
+                    END
+                    $$ LANGUAGE plpgsql
+                    """),
+
+            new Migration(8, "Archive table for old completed tasks",
+                    // The columns tasks had then. TaskArchive moves rows by column name, a later column added to tasks
+                    // only has to be added here if the archive should keep it
+                    "CREATE TABLE IF NOT EXISTS tasks_archive (LIKE tasks)",
+                    "ALTER TABLE tasks_archive ADD COLUMN IF NOT EXISTS archived_at TIMESTAMP NOT NULL DEFAULT now()",
+                    "ALTER TABLE tasks_archive ADD PRIMARY KEY (id)",
+                    // Browsing newest completion first, and the per-user counts and charts
+                    "CREATE INDEX IF NOT EXISTS idx_tasks_archive_user_updated ON tasks_archive (username, updated_at DESC, id DESC)"),
+
+            new Migration(9, "Sessions carry their id to the local replica",
+                    // LocalReplica pulls sessions by id, a session drained late from the outbox is backdated but gets a new id
+                    "CREATE INDEX IF NOT EXISTS idx_sessionslog_user_id ON sessionslog (username, id)",
+                    // The change feed sends the id too, so a row the replica already pulled is not added twice
+                    """
+                    CREATE OR REPLACE FUNCTION sessionslog_change_feed() RETURNS trigger AS $$
+                    DECLARE
+                        change RECORD;
+                    BEGIN
+                        FOR change IN
+                            SELECT username, json_agg(json_build_object('id', id, 'session_type', session_type, 'duration', duration, 'created_at', created_at)) AS rows
+                            FROM new_rows GROUP BY username
+                        LOOP
+                            PERFORM change_feed_send(change.username, 'sessions', 'INSERT', change.rows);
+                        END LOOP;
+                        RETURN NULL;
+                    END
+                    $$ LANGUAGE plpgsql
+                    """),
+
+            new Migration(10, "Tasks carry a key from the client that added them",
+                    // The outbox completes, edits and deletes a task added on this device by this key until its id is
+                    // known, never by name. The change feed sends it with the row, so the replica and the task list
+                    // can match the new id to the task. tasks_archive does not need it, TaskArchive moves rows by column name
+                    "ALTER TABLE tasks ADD COLUMN IF NOT EXISTS client_key UUID",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_tasks_client_key ON tasks (client_key)")
+    );
+
+    // How far ahead of the current month sessionslog partitions are created at startup
+    static final int PARTITION_MONTHS_AHEAD = 3;
+
+    private static boolean migrated = false;
+    private static int appliedVersion = 0; // as far as this client has seen, 0 until migrate has reached the database
+
+    // Bring the database up to the latest version, safe to call from several places and several clients
+    public static synchronized void migrate() throws SQLException {
+        if (migrated) {
+            return;
+        }
+
+        try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+            migrate(conn);
+        }
+    }
+
+    // The same against a given connection, the schema test brings its own scratch database
+    static synchronized void migrate(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SELECT pg_advisory_xact_lock(" + MIGRATION_LOCK_KEY + ")");
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_migrations (
+                    version INT PRIMARY KEY,
+                    description TEXT NOT NULL,
+                    applied_at TIMESTAMP NOT NULL DEFAULT now()
+                )
+            """);
+
+            int current = 0;
+            try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_migrations")) {
+                if (rs.next()) {
+                    current = rs.getInt(1);
+                }
+            }
+            appliedVersion = current;
+
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version() <= current) {
+                    continue;
+                }
+                for (String statement : migration.statements()) {
+                    stmt.execute(statement);
+                }
+                try (PreparedStatement record = conn.prepareStatement(
+                        "INSERT INTO schema_migrations (version, description) VALUES (?, ?)")) {
+                    record.setInt(1, migration.version());
+                    record.setString(2, migration.description());
+                    record.executeUpdate();
+                }
+            }
+
+            conn.commit();
+            appliedVersion = Math.max(current, MIGRATIONS.get(MIGRATIONS.size() - 1).version());
+            migrated = true;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+    }
+
+    // Whether the database has the schema from this version, for reads that need a table added by a migration
+    public static synchronized boolean isApplied(int version) {
+        return appliedVersion >= version;
+    }
+
+    // Run at startup, failures only mean the app keeps working on the existing schema
+    public static void migrateQuietly() {
+        try {
+            migrate();
+            ensurePartitions();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Schema migration skipped: " + e.getMessage());
+        }
+    }
+
+    // Create next months' sessionslog partitions before any session lands in them, the default partition covers the gap.
+    // Does nothing until SessionsLogPartitioning has been run
+    public static void ensurePartitions() throws SQLException {
+        try (Connection conn = ConnectionPool.getInstance().getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("SELECT sessionslog_ensure_partitions(CURRENT_DATE, (CURRENT_DATE + INTERVAL '" + PARTITION_MONTHS_AHEAD + " months')::date)");
+        }
+    }
+}
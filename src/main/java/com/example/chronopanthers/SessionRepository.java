@@ -0,0 +1,18 @@
+package com.example.chronopanthers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Storage for pomodoro sessions, forwarded to from SupabaseConnection and Analytics
+public interface SessionRepository {
+    // A finished pomodoro, sessionType is "work" or "break": logs the session and bumps its counter together, returns the new {work, break} totals
+    int[] recordSession(String username, String sessionType, int duration);
+
+    // {work sessions, break sessions}
+    int[] getSessionCounts(String username);
+
+    // Productivity series, including tasks completed, with every bucket from from to to present
+    Map<Analytics.Series, Map<LocalDate, Integer>> getSeries(String username, LocalDate from, LocalDate to,
+                                                             Analytics.Granularity granularity, List<Analytics.Series> series);
+}
@@ -0,0 +1,152 @@
+package com.example.chronopanthers;
+
+import java.sql.*;
+
+// Rebuilds sessionslog as a table partitioned by month, under the same name. Run once by an operator, never at client
+// startup: the whole table is copied under an exclusive lock, so every client's session writes wait until it is done.
+//   java -cp <app classpath> com.example.chronopanthers.SessionsLogPartitioning
+// It runs in one transaction against SUPABASE_JDBC_URI. Any failure rolls it all back and exits non-zero.
+public class SessionsLogPartitioning {
+    // Grants, row level security and its policies, foreign keys, triggers, indexes, owner and comment are copied to the
+    // new table explicitly, LIKE only brings the columns, defaults, identity, CHECK constraints and column comments.
+    // Views and foreign keys pointing at sessionslog would follow the rename and block the drop, so they stop it first
+    private static final String REBUILD = """
+            DO $$
+            DECLARE
+                old_table OID := 'sessionslog'::regclass;
+                dependents TEXT;
+                index_defs TEXT[];
+                trigger_defs TEXT[];
+                foreign_key_defs TEXT[];
+                grant_defs TEXT[];
+                policy_defs TEXT[];
+                row_security BOOLEAN;
+                force_row_security BOOLEAN;
+                owner_name TEXT;
+                table_comment TEXT;
+                old_sequence TEXT;
+                new_sequence TEXT;
+                has_id BOOLEAN;
+                def TEXT;
+            BEGIN
+                SELECT string_agg(dependent, ', ') INTO dependents FROM (
+                    SELECT DISTINCT 'view ' || r.ev_class::regclass AS dependent
+                    FROM pg_depend d JOIN pg_rewrite r ON r.oid = d.objid
+                    WHERE d.classid = 'pg_rewrite'::regclass AND d.refobjid = old_table AND r.ev_class <> old_table
+                    UNION
+                    SELECT 'foreign key ' || conname || ' on ' || conrelid::regclass
+                    FROM pg_constraint WHERE contype = 'f' AND confrelid = old_table
+                ) found;
+                IF dependents IS NOT NULL THEN
+                    RAISE EXCEPTION 'sessionslog is used by %, drop them and recreate them after partitioning', dependents;
+                END IF;
+
+                -- Definitions are read before the rename, so they name sessionslog
+                SELECT array_agg(pg_get_indexdef(indexrelid)) INTO index_defs
+                FROM pg_index WHERE indrelid = old_table AND NOT indisprimary;
+                SELECT array_agg(pg_get_triggerdef(oid)) INTO trigger_defs
+                FROM pg_trigger WHERE tgrelid = old_table AND NOT tgisinternal;
+                SELECT array_agg(format('ALTER TABLE sessionslog ADD CONSTRAINT %I %s', conname, pg_get_constraintdef(oid))) INTO foreign_key_defs
+                FROM pg_constraint WHERE contype = 'f' AND conrelid = old_table;
+                SELECT array_agg(format('GRANT %s ON sessionslog TO %s%s', a.privilege_type,
+                                        CASE WHEN a.grantee = 0 THEN 'PUBLIC' ELSE quote_ident(pg_get_userbyid(a.grantee)) END,
+                                        CASE WHEN a.is_grantable THEN ' WITH GRANT OPTION' ELSE '' END)) INTO grant_defs
+                FROM pg_class c, aclexplode(c.relacl) a WHERE c.oid = old_table AND a.grantee <> c.relowner;
+                SELECT array_agg(format('CREATE POLICY %I ON sessionslog AS %s FOR %s TO %s%s%s', p.policyname, p.permissive, p.cmd,
+                                        (SELECT string_agg(CASE WHEN r = 'public' THEN 'PUBLIC' ELSE quote_ident(r) END, ', ') FROM unnest(p.roles) r),
+                                        ' USING (' || p.qual || ')', ' WITH CHECK (' || p.with_check || ')')) INTO policy_defs
+                FROM pg_policies p JOIN pg_class c ON c.relname = p.tablename
+                JOIN pg_namespace n ON n.oid = c.relnamespace AND n.nspname = p.schemaname
+                WHERE c.oid = old_table;
+                SELECT relrowsecurity, relforcerowsecurity, pg_get_userbyid(relowner), obj_description(oid, 'pg_class')
+                INTO row_security, force_row_security, owner_name, table_comment
+                FROM pg_class WHERE oid = old_table;
+
+                ALTER TABLE sessionslog RENAME TO sessionslog_unpartitioned;
+                CREATE TABLE sessionslog (LIKE sessionslog_unpartitioned INCLUDING ALL EXCLUDING INDEXES) PARTITION BY RANGE (created_at);
+                -- Catches rows for months that have no partition yet, ensure_partitions moves them out later
+                CREATE TABLE sessionslog_default PARTITION OF sessionslog DEFAULT;
+
+                -- Keep the id sequence (serial or identity) counting on from the old table
+                has_id := EXISTS (SELECT 1 FROM pg_attribute WHERE attrelid = 'sessionslog'::regclass AND attname = 'id' AND NOT attisdropped);
+                IF has_id THEN
+                    old_sequence := pg_get_serial_sequence('sessionslog_unpartitioned', 'id');
+                    new_sequence := pg_get_serial_sequence('sessionslog', 'id');
+                    IF new_sequence IS NOT NULL THEN
+                        PERFORM setval(new_sequence, (SELECT COALESCE(MAX(id), 0) + 1 FROM sessionslog_unpartitioned), false);
+                    ELSIF old_sequence IS NOT NULL THEN
+                        EXECUTE format('ALTER SEQUENCE %s OWNED BY sessionslog.id', old_sequence);
+                    END IF;
+                END IF;
+
+                -- A partition for every month that has sessions, the months ahead are added once the rebuild is done
+                PERFORM sessionslog_ensure_partitions(COALESCE((SELECT MIN(created_at)::date FROM sessionslog_unpartitioned), CURRENT_DATE), CURRENT_DATE);
+                -- Copied before the triggers are recreated, so no session is counted in the rollup or announced twice
+                INSERT INTO sessionslog OVERRIDING SYSTEM VALUE SELECT * FROM sessionslog_unpartitioned;
+                DROP TABLE sessionslog_unpartitioned;
+
+                -- Added once the old table is gone so it keeps the name sessionslog_pkey, it must include the partition key
+                IF has_id THEN
+                    ALTER TABLE sessionslog ADD PRIMARY KEY (id, created_at);
+                END IF;
+
+                -- Created on the parent, so every partition gets them
+                FOREACH def IN ARRAY COALESCE(index_defs, '{}') || COALESCE(trigger_defs, '{}') || COALESCE(foreign_key_defs, '{}')
+                                     || COALESCE(grant_defs, '{}') || COALESCE(policy_defs, '{}') LOOP
+                    EXECUTE def;
+                END LOOP;
+                IF row_security THEN
+                    ALTER TABLE sessionslog ENABLE ROW LEVEL SECURITY;
+                END IF;
+                IF force_row_security THEN
+                    ALTER TABLE sessionslog FORCE ROW LEVEL SECURITY;
+                END IF;
+                EXECUTE format('ALTER TABLE sessionslog OWNER TO %I', owner_name);
+                IF table_comment IS NOT NULL THEN
+                    EXECUTE format('COMMENT ON TABLE sessionslog IS %L', table_comment);
+                END IF;
+            END
+            $$
+            """;
+
+    public static void main(String[] args) {
+        try {
+            if (partition()) {
+                System.out.println("sessionslog is now partitioned by month");
+            } else {
+                System.out.println("sessionslog is already partitioned, nothing to do");
+            }
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Error partitioning sessionslog, the table was left as it was: " + e.getMessage());
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    // False when the table was already partitioned, throws on any failure with the transaction rolled back
+    public static boolean partition() throws SQLException {
+        // The maintenance function the rebuild calls comes from migration 6
+        SchemaMigrations.migrate();
+
+        try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("LOCK TABLE sessionslog IN ACCESS EXCLUSIVE MODE");
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'sessionslog'::regclass")) {
+                    if (rs.next()) {
+                        conn.rollback();
+                        return false;
+                    }
+                }
+                stmt.execute(REBUILD);
+                stmt.execute("SELECT sessionslog_ensure_partitions(CURRENT_DATE, (CURRENT_DATE + INTERVAL '" + SchemaMigrations.PARTITION_MONTHS_AHEAD + " months')::date)");
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+}
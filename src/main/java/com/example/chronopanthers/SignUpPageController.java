@@ -48,26 +48,41 @@ public class SignUpPageController implements Initializable {
             stage.setOnCloseRequest(null); // reset to default close behavior
         });
 
-        if (loginModel.isDbConnected()) {
-            isConnected.setText("");
-            System.out.println("Connected to DB");
-        } else {
-            isConnected.setText("Not Connected to DB");
-        }
+        AsyncDatabase.onFx(AsyncDatabase.isDbConnected(loginModel), connected -> {
+            if (connected) {
+                isConnected.setText("");
+                System.out.println("Connected to DB");
+            } else {
+                isConnected.setText("Not Connected to DB");
+            }
+        });
     }
 
     // If signup successful, go back to login page after saving user info
     public void signUp(ActionEvent event) throws IOException {
-        try {
-            if (txtUsername.getText().isBlank() ) {
-                isConnected.setText("Username Empty!");
-            } else if (txtPassword.getText().isBlank()) {
-                isConnected.setText("Password Empty!");
-            } else if (txtPassword.getText().length() < 8) {
-                isConnected.setText("Password Min Length: 8");
-            } else if (!loginModel.isSignUp(txtUsername.getText(), txtPassword.getText())) {
+        if (txtUsername.getText().isBlank() ) {
+            isConnected.setText("Username Empty!");
+            return;
+        } else if (txtPassword.getText().isBlank()) {
+            isConnected.setText("Password Empty!");
+            return;
+        } else if (txtPassword.getText().length() < 8) {
+            isConnected.setText("Password Min Length: 8");
+            return;
+        }
+
+        stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+
+        // Hashing and the insert run in the background, the button stays disabled until they finish
+        signUpButton.setDisable(true);
+        AsyncDatabase.onFx(AsyncDatabase.isSignUp(loginModel, txtUsername.getText(), txtPassword.getText()), success -> {
+            signUpButton.setDisable(false);
+            if (!success) {
                 isConnected.setText("Username already used!");
-            } else {
+                return;
+            }
+
+            try {
                 isConnected.setText("");
                 Alert confirmation = new Alert(Alert.AlertType.INFORMATION);
                 confirmation.setTitle("Sign up successful");
@@ -76,17 +91,16 @@ public class SignUpPageController implements Initializable {
                 confirmation.showAndWait();
 
                 Parent root = FXMLLoader.load(getClass().getResource("loginPage.fxml"));
-                stage = (Stage) ((Node)event.getSource()).getScene().getWindow();
                 scene = new Scene(root);
                 scene.getStylesheets().add(getClass().getResource("/com/example/chronopanthers/loginPage.css").toExternalForm());
                 stage.setTitle("Login Page");
                 stage.setScene(scene);
                 stage.setResizable(false);
                 stage.show();
+            } catch (Exception e) {
+                e.printStackTrace();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        });
     }
 
     // Go back to login page
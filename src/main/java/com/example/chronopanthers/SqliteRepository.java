@@ -0,0 +1,383 @@
+package com.example.chronopanthers;
+
+import java.io.File;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Single-file backend with no server, same table layout as the local replica but it is the source of truth.
+// Dates and timestamps are stored as ISO text so Analytics.query can bucket them with SQLite's date functions.
+public class SqliteRepository implements TaskRepository, SessionRepository {
+    private final String path;
+    private Connection connection;
+
+    public SqliteRepository(String path) {
+        this.path = path;
+    }
+
+    private synchronized Connection getConnection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            try {
+                Class.forName("org.sqlite.JDBC");
+            } catch (ClassNotFoundException e) {
+                throw new SQLException("SQLite driver not found", e);
+            }
+
+            File parent = new File(path).getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            connection = DriverManager.getConnection("jdbc:sqlite:" + path);
+            createSchema(connection);
+        }
+        return connection;
+    }
+
+    private static void createSchema(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS tasks (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    username TEXT NOT NULL,
+                    task_name TEXT NOT NULL,
+                    task_type TEXT NOT NULL,
+                    priority TEXT NOT NULL,
+                    is_completed INTEGER NOT NULL DEFAULT 0,
+                    due_date TEXT,
+                    created_at TEXT NOT NULL,
+                    updated_at TEXT NOT NULL
+                )
+            """);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_tasks_user_open_created ON tasks (username, is_completed, created_at, id)");
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS sessionslog (
+                    username TEXT NOT NULL,
+                    session_type TEXT NOT NULL,
+                    duration INTEGER NOT NULL,
+                    created_at TEXT NOT NULL
+                )
+            """);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_sessionslog_user ON sessionslog (username, session_type, created_at)");
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS loginDetails (
+                    username TEXT PRIMARY KEY,
+                    workSessions INTEGER NOT NULL DEFAULT 0,
+                    breakSessions INTEGER NOT NULL DEFAULT 0
+                )
+            """);
+        }
+    }
+
+    @Override
+    public void open() {
+        try {
+            getConnection();
+        } catch (SQLException e) {
+            System.err.println("Error opening SQLite database: " + e.getMessage());
+        }
+    }
+
+    // By id, or by name among open tasks for a task without one
+    private static String keyOf(Task task) {
+        return task.getId() > 0 ? "id = ?" : "task_name = ? AND is_completed = 0";
+    }
+
+    private static void bindKey(PreparedStatement pstmt, int index, Task task) throws SQLException {
+        if (task.getId() > 0) {
+            pstmt.setLong(index, task.getId());
+        } else {
+            pstmt.setString(index, task.getTaskName());
+        }
+    }
+
+    @Override
+    public synchronized boolean addTask(String username, Task task) {
+        String sql = "INSERT INTO tasks (username, task_name, task_type, priority, is_completed, due_date, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            String now = LocalDateTime.now().toString();
+            pstmt.setString(1, username);
+            pstmt.setString(2, task.getTaskName());
+            pstmt.setString(3, task.getTaskType());
+            pstmt.setString(4, task.getPriority().toString());
+            pstmt.setInt(5, task.getIsCompleted() ? 1 : 0);
+            pstmt.setString(6, task.getDeadline() == null ? null : task.getDeadline().toString());
+            pstmt.setString(7, now);
+            pstmt.setString(8, now);
+            pstmt.executeUpdate();
+
+            ResultSet keys = pstmt.getGeneratedKeys();
+            if (keys.next()) {
+                task.setId(keys.getLong(1));
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error adding task: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized boolean taskExists(String username, String taskName) {
+        String sql = "SELECT 1 FROM tasks WHERE username = ? AND LOWER(task_name) = LOWER(?) AND is_completed = 0 LIMIT 1";
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, taskName);
+            return pstmt.executeQuery().next();
+        } catch (SQLException e) {
+            System.err.println("Error checking task existence: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized List<Task> getUserTasks(String username) {
+        List<Task> tasks = new ArrayList<>();
+        String sql = "SELECT id, task_name, task_type, priority, is_completed, due_date FROM tasks WHERE username = ? AND is_completed = 0 ORDER BY created_at DESC, id DESC";
+
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            pstmt.setString(1, username);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                tasks.add(toTask(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving tasks: " + e.getMessage());
+        }
+
+        return tasks;
+    }
+
+    @Override
+    public synchronized TaskDashboard getTaskDashboard(String username, int pageSize) {
+        return new TaskDashboard(getUserTasksPage(username, null, pageSize), getUserTaskCount(username),
+                getUserCompletedTaskCount(username), getOverdueTasks(username).size());
+    }
+
+    @Override
+    public synchronized TaskPage getUserTasksPage(String username, TaskPage.Cursor after, int pageSize) {
+        String sql = "SELECT id, created_at, task_name, task_type, priority, is_completed, due_date FROM tasks " +
+                "WHERE username = ? AND is_completed = 0" + (after == null ? "" : " AND (created_at, id) < (?, ?)") +
+                " ORDER BY created_at DESC, id DESC LIMIT ?";
+
+        List<Task> tasks = new ArrayList<>();
+        TaskPage.Cursor last = null;
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            int index = 1;
+            pstmt.setString(index++, username);
+            if (after != null) {
+                pstmt.setString(index++, after.createdAt().toString());
+                pstmt.setLong(index++, after.id());
+            }
+            pstmt.setInt(index, pageSize + 1);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                if (tasks.size() == pageSize) {
+                    return new TaskPage(tasks, last);
+                }
+                tasks.add(toTask(rs));
+                last = new TaskPage.Cursor(LocalDateTime.parse(rs.getString("created_at")), rs.getLong("id"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving task page: " + e.getMessage());
+        }
+
+        return new TaskPage(tasks, null);
+    }
+
+    @Override
+    public synchronized boolean updateTaskCompletion(String username, Task task, boolean completed) {
+        String sql = "UPDATE tasks SET is_completed = ?, updated_at = ? WHERE username = ? AND " + keyOf(task);
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            pstmt.setInt(1, completed ? 1 : 0);
+            pstmt.setString(2, LocalDateTime.now().toString());
+            pstmt.setString(3, username);
+            bindKey(pstmt, 4, task);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error updating task completion: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized boolean updateTask(String username, Task original, Task edited) {
+        String sql = "UPDATE tasks SET task_name = ?, task_type = ?, priority = ?, due_date = ?, updated_at = ? " +
+                "WHERE username = ? AND " + keyOf(original) + " RETURNING id";
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            pstmt.setString(1, edited.getTaskName());
+            pstmt.setString(2, edited.getTaskType());
+            pstmt.setString(3, edited.getPriority().toString());
+            pstmt.setString(4, edited.getDeadline() == null ? null : edited.getDeadline().toString());
+            pstmt.setString(5, LocalDateTime.now().toString());
+            pstmt.setString(6, username);
+            bindKey(pstmt, 7, original);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                edited.setId(rs.getLong("id"));
+                return true;
+            }
+            return false;
+        } catch (SQLException e) {
+            System.err.println("Error updating task: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized boolean deleteTask(String username, Task task) {
+        try (PreparedStatement pstmt = getConnection().prepareStatement("DELETE FROM tasks WHERE username = ? AND " + keyOf(task))) {
+            pstmt.setString(1, username);
+            bindKey(pstmt, 2, task);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error deleting task: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public int getUserTaskCount(String username) {
+        return count(username, null);
+    }
+
+    @Override
+    public int getUserCompletedTaskCount(String username) {
+        return count(username, true);
+    }
+
+    // Total when completed is null, otherwise only tasks with that completion status
+    private synchronized int count(String username, Boolean completed) {
+        String sql = "SELECT COUNT(*) AS count FROM tasks WHERE username = ?" + (completed == null ? "" : " AND is_completed = ?");
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            pstmt.setString(1, username);
+            if (completed != null) {
+                pstmt.setInt(2, completed ? 1 : 0);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt("count");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting task count: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    @Override
+    public synchronized List<Task> getOverdueTasks(String username) {
+        List<Task> tasks = new ArrayList<>();
+        String sql = "SELECT id, task_name, task_type, priority, is_completed, due_date FROM tasks " +
+                "WHERE username = ? AND task_type = 'Deadline' AND due_date < ? AND is_completed = 0 ORDER BY due_date ASC";
+
+        try (PreparedStatement pstmt = getConnection().prepareStatement(sql)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, DayClock.today().toString());
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                tasks.add(toTask(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting overdue tasks: " + e.getMessage());
+        }
+
+        return tasks;
+    }
+
+    @Override
+    public boolean testConnection() {
+        try {
+            return !getConnection().isClosed();
+        } catch (SQLException e) {
+            System.err.println("Database connection test failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static Task toTask(ResultSet rs) throws SQLException {
+        String taskName = rs.getString("task_name");
+        Task.Priority priority = Task.Priority.valueOf(rs.getString("priority"));
+        String dueDate = rs.getString("due_date");
+
+        Task task;
+        if ("Deadline".equals(rs.getString("task_type")) && dueDate != null) {
+            task = new DeadlineTask(taskName, LocalDate.parse(dueDate), priority);
+        } else {
+            task = new NormalTask(taskName, priority);
+        }
+
+        if (rs.getInt("is_completed") == 1) {
+            task.complete();
+        }
+        task.setId(rs.getLong("id"));
+        return task;
+    }
+
+    // Sessions
+
+    // One transaction, so the log and the counter move together
+    @Override
+    public synchronized int[] recordSession(String username, String sessionType, int duration) {
+        String column = "work".equals(sessionType) ? "workSessions" : "breakSessions";
+        try {
+            Connection conn = getConnection();
+            conn.setAutoCommit(false);
+            try (PreparedStatement log = conn.prepareStatement(
+                         "INSERT INTO sessionslog (username, session_type, duration, created_at) VALUES (?, ?, ?, ?)");
+                 PreparedStatement count = conn.prepareStatement(
+                         "INSERT INTO loginDetails (username, " + column + ") VALUES (?, 1) " +
+                         "ON CONFLICT (username) DO UPDATE SET " + column + " = " + column + " + 1 " +
+                         "RETURNING workSessions, breakSessions")) {
+                log.setString(1, username);
+                log.setString(2, sessionType);
+                log.setInt(3, duration);
+                log.setString(4, LocalDateTime.now().toString());
+                log.executeUpdate();
+
+                count.setString(1, username);
+                ResultSet rs = count.executeQuery();
+                int[] totals = rs.next() ? new int[]{rs.getInt("workSessions"), rs.getInt("breakSessions")} : new int[]{0, 0};
+                rs.close();
+                conn.commit();
+                return totals;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error recording " + sessionType + " session: " + e.getMessage());
+            return getSessionCounts(username);
+        }
+    }
+
+    @Override
+    public synchronized int[] getSessionCounts(String username) {
+        int[] counts = {0, 0};
+        try (PreparedStatement pstmt = getConnection().prepareStatement(
+                "SELECT workSessions, breakSessions FROM loginDetails WHERE username = ?")) {
+            pstmt.setString(1, username);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                counts[0] = rs.getInt("workSessions");
+                counts[1] = rs.getInt("breakSessions");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting session counts: " + e.getMessage());
+        }
+        return counts;
+    }
+
+    @Override
+    public synchronized Map<Analytics.Series, Map<LocalDate, Integer>> getSeries(String username, LocalDate from, LocalDate to,
+                                                                                 Analytics.Granularity granularity, List<Analytics.Series> series) {
+        try {
+            return Analytics.query(getConnection(), true, username, from, to, granularity, series);
+        } catch (SQLException e) {
+            System.err.println("Error loading productivity data: " + e.getMessage());
+            return new LinkedHashMap<>();
+        }
+    }
+}
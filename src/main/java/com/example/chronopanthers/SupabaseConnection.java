@@ -1,20 +1,17 @@
 package com.example.chronopanthers;
 import java.sql.*;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 // Supposed to be Named SupabaseConnection, to edit when we have time
 public class SupabaseConnection {
+    // Borrows from the shared pool, closing the connection returns it
     public static Connection connector() {
         try {
-            Class.forName("org.postgresql.Driver");
-
-            Connection conn = DriverManager.getConnection(DatabaseConfig.getJdbcUrl());
+            Connection conn = ConnectionPool.getInstance().getConnection();
 
             //System.out.println("Connection to Supabase successful!");
             return conn;
 
-        } catch (ClassNotFoundException e) {
+        } catch (IllegalStateException e) {
             System.err.println("PostgreSQL JDBC Driver not found: " + e.getMessage());
             return null;
         } catch (SQLException e) {
@@ -27,350 +24,17 @@ public class SupabaseConnection {
         }
     }
 
-    public static void updateWorkSession(String username) {
-        String sql = "UPDATE loginDetails SET workSessions = workSessions + 1 WHERE username = ?";
-
-        try (Connection conn = connector();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            if (conn != null) {
-                pstmt.setString(1, username);
-                int rowsAffected = pstmt.executeUpdate();
-                //System.out.println("Work session updated for " + username + ". Rows affected: " + rowsAffected);
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Error updating work session: " + e.getMessage());
-        }
-    }
-
-    public static void logWorkSession(String username, int duration) {
-        String sql = "INSERT INTO sessionslog (username, session_type, duration) VALUES (?, ?, ?)";
-
-        try (Connection conn = connector();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, username);
-            pstmt.setString(2, "work");
-            pstmt.setInt(3, duration);
-
-            int rowsInserted = pstmt.executeUpdate();
-            //System.out.println("Logged work session for " + username + ". Rows inserted: " + rowsInserted);
-
-        } catch (SQLException e) {
-            System.err.println("Error logging work session: " + e.getMessage());
-        }
-    }
-
-    public static void updateBreakSession(String username) {
-        String sql = "UPDATE loginDetails SET breakSessions = breakSessions + 1 WHERE username = ?";
-
-        try (Connection conn = connector();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            if (conn != null) {
-                pstmt.setString(1, username);
-                int rowsAffected = pstmt.executeUpdate();
-                //System.out.println("Break session updated for " + username + ". Rows affected: " + rowsAffected);
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Error updating break session: " + e.getMessage());
-        }
-    }
-
-    public static void logBreakSession(String username, int duration) {
-        String sql = "INSERT INTO sessionslog (username, session_type, duration) VALUES (?, ?, ?)";
-
-        try (Connection conn = connector();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, username);
-            pstmt.setString(2, "break");
-            pstmt.setInt(3, duration);
-
-            int rowsInserted = pstmt.executeUpdate();
-            //System.out.println("Logged break session for " + username + ". Rows inserted: " + rowsInserted);
-
-        } catch (SQLException e) {
-            System.err.println("Error logging break session: " + e.getMessage());
-        }
+    // Session writes and reads go to the configured SessionRepository
+    // A finished work or break session, logged and counted together. Returns the new {work, break} totals
+    public static int[] recordSession(String username, String sessionType, int duration) {
+        int[] totals = Repositories.sessions().recordSession(username, sessionType, duration);
+        AnalyticsCache.invalidateSessions(username, sessionType);
+        UserSession.invalidateSessionCounts(username);
+        return totals;
     }
 
     public static int[] getSessionCounts(String username) {
-        String sql = "SELECT workSessions, breakSessions FROM loginDetails WHERE username = ?";
-        int[] counts = {0, 0};
-
-        try (Connection conn = connector();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            if (conn != null) {
-                pstmt.setString(1, username);
-                ResultSet rs = pstmt.executeQuery();
-
-                if (rs.next()) {
-                    counts[0] = rs.getInt("workSessions");
-                    counts[1] = rs.getInt("breakSessions");
-                    //System.out.println("Retrieved sessions for " + username +
-                     //       " - Work: " + counts[0] + ", Break: " + counts[1]);
-                }
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Error getting session counts: " + e.getMessage());
-        }
-
-        return counts;
-    }
-
-    // Work Session
-    public static Map<String, Integer> getWorkSessionLast7Days(String username) {
-        String sql = " SELECT TO_CHAR(created_at, 'YYYY-MM-DD') AS day, COUNT(*) AS task_count FROM sessionslog WHERE session_type = 'work' " +
-                     " AND username = ? AND created_at >= CURRENT_DATE - INTERVAL '6 days'" +
-                     "GROUP BY day ORDER BY day";
-
-        Map<String, Integer> result = new LinkedHashMap<>();
-
-        try (Connection conn = connector();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                result.put(rs.getString("day"), rs.getInt("task_count"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return result;
-    }
-
-    public static Map<String, Integer> getWorkSessionLast30Days(String username) {
-        String sql = """
-        SELECT TO_CHAR(created_at, 'YYYY-MM-DD') AS day, COUNT(*) AS task_count
-        FROM sessionslog
-        WHERE session_type = 'work'
-          AND username = ?
-          AND created_at >= CURRENT_DATE - INTERVAL '29 days'
-        GROUP BY day
-        ORDER BY day;
-        """;
-
-        Map<String, Integer> result = new LinkedHashMap<>();
-
-        try (Connection conn = connector();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                result.put(rs.getString("day"), rs.getInt("task_count"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return result;
-    }
-
-    public static Map<String, Integer> getWorkSessionThisYearByMonth(String username) {
-        String sql = """
-        SELECT TO_CHAR(created_at, 'YYYY-MM') AS month, COUNT(*) AS task_count
-        FROM sessionslog
-        WHERE session_type = 'work'
-          AND username = ?
-          AND EXTRACT(YEAR FROM created_at) = EXTRACT(YEAR FROM CURRENT_DATE)
-        GROUP BY month
-        ORDER BY month;
-        """;
-
-        Map<String, Integer> result = new LinkedHashMap<>();
-
-        try (Connection conn = connector();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                result.put(rs.getString("month"), rs.getInt("task_count"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return result;
-    }
-
-    // Duration
-    public static Map<String, Integer> getDurationLast7Days(String username) {
-        String sql = " SELECT TO_CHAR(created_at, 'YYYY-MM-DD') AS day, SUM(duration) AS total_duration FROM sessionslog WHERE session_type = 'work' " +
-                " AND username = ? AND created_at >= CURRENT_DATE - INTERVAL '6 days'" +
-                "GROUP BY day ORDER BY day";
-
-        Map<String, Integer> result = new LinkedHashMap<>();
-
-        try (Connection conn = connector();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                result.put(rs.getString("day"), rs.getInt("total_duration"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return result;
-    }
-
-    public static Map<String, Integer> getDurationLast30Days(String username) {
-        String sql = """
-        SELECT TO_CHAR(created_at, 'YYYY-MM-DD') AS day, SUM(duration) AS total_duration
-        FROM sessionslog
-        WHERE session_type = 'work'
-          AND username = ?
-          AND created_at >= CURRENT_DATE - INTERVAL '29 days'
-        GROUP BY day
-        ORDER BY day;
-        """;
-
-        Map<String, Integer> result = new LinkedHashMap<>();
-
-        try (Connection conn = connector();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                result.put(rs.getString("day"), rs.getInt("total_duration"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return result;
-    }
-
-    public static Map<String, Integer> getDurationThisYearByMonth(String username) {
-        String sql = """
-        SELECT TO_CHAR(created_at, 'YYYY-MM') AS month, SUM(duration) AS total_duration
-        FROM sessionslog
-        WHERE session_type = 'work'
-          AND username = ?
-          AND EXTRACT(YEAR FROM created_at) = EXTRACT(YEAR FROM CURRENT_DATE)
-        GROUP BY month
-        ORDER BY month;
-        """;
-
-        Map<String, Integer> result = new LinkedHashMap<>();
-
-        try (Connection conn = connector();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                result.put(rs.getString("month"), rs.getInt("total_duration"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return result;
-    }
-
-    // For Pie Chart
-    public static Map<String, Integer> getTotalDurationsByType7Days(String username) {
-        String sql = """
-        SELECT session_type, SUM(duration) AS total
-        FROM sessionslog
-        WHERE username = ?
-        AND created_at >= CURRENT_DATE - INTERVAL '6 days'
-        GROUP BY session_type
-    """;
-
-        Map<String, Integer> result = new LinkedHashMap<>();
-
-        try (Connection conn = connector();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                String type = rs.getString("session_type");
-                int total = rs.getInt("total");
-                result.put(type, total);
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return result;
-    }
-
-    public static Map<String, Integer> getTotalDurationsByType30Days(String username) {
-        String sql = """
-        SELECT session_type, SUM(duration) AS total
-        FROM sessionslog
-        WHERE username = ?
-        AND created_at >= CURRENT_DATE - INTERVAL '29 days'
-        GROUP BY session_type
-    """;
-
-        Map<String, Integer> result = new LinkedHashMap<>();
-
-        try (Connection conn = connector();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                String type = rs.getString("session_type");
-                int total = rs.getInt("total");
-                result.put(type, total);
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return result;
-    }
-
-    public static Map<String, Integer> getTotalDurationsByTypeYear(String username) {
-        String sql = """
-        SELECT session_type, SUM(duration) AS total
-        FROM sessionslog
-        WHERE username = ?
-          AND EXTRACT (YEAR FROM created_at) = EXTRACT(YEAR FROM CURRENT_DATE)
-        GROUP BY session_type
-    """;
-
-        Map<String, Integer> result = new LinkedHashMap<>();
-
-        try (Connection conn = connector();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                String type = rs.getString("session_type");
-                int total = rs.getInt("total");
-                result.put(type, total);
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return result;
+        return Repositories.sessions().getSessionCounts(username);
     }
 
     // Additional method to test connection
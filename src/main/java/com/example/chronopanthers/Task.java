@@ -2,6 +2,7 @@ package com.example.chronopanthers;
 
 
 import java.time.LocalDate;
+import java.util.UUID;
 
 abstract class Task {
     public enum Priority {
@@ -24,6 +25,8 @@ abstract class Task {
 
     }
 
+    private long id; // database id, 0 until the task has been read back from the database
+    private UUID clientKey; // given by the client that added the task, addresses it until the id is known
     private String taskName;
     private boolean isCompleted;
     private Priority priority;
@@ -34,6 +37,22 @@ abstract class Task {
         this.priority = priority;
     }
 
+    public long getId() {
+        return this.id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public UUID getClientKey() {
+        return this.clientKey;
+    }
+
+    public void setClientKey(UUID clientKey) {
+        this.clientKey = clientKey;
+    }
+
     public boolean getIsCompleted() {
         return this.isCompleted;
     }
@@ -0,0 +1,172 @@
+package com.example.chronopanthers;
+
+import java.sql.*;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Cold storage for completed tasks. Tasks completed more than CHRONOPANTHERS_ARCHIVE_AFTER_DAYS ago move from tasks
+// to tasks_archive (schema migration 8), so the interactive task queries only ever see a small hot set.
+// Counts, charts and export still include the archive, and it can be browsed through a server-side cursor.
+public class TaskArchive {
+    private static final int BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 200;
+
+    private static final int SCHEMA_VERSION = 8; // the migration that creates tasks_archive
+
+    public record ArchivedTask(Task task, LocalDateTime completedAt, LocalDateTime archivedAt) {}
+
+    // tasks_archive is only read once migration 8 is known to have run, until then nothing can have been archived
+    public static boolean isAvailable() {
+        return SchemaMigrations.isApplied(SCHEMA_VERSION);
+    }
+
+    // Completions on or after this day are still in tasks, null while archiving is turned off
+    public static LocalDate hotSince() {
+        int days = DatabaseConfig.getArchiveAfterDays();
+        return days > 0 ? DayClock.today().minusDays(days) : null;
+    }
+
+    // True when tasks completed on this day may already have been archived
+    public static boolean mayBeArchived(LocalDate day) {
+        LocalDate hotSince = hotSince();
+        return hotSince != null && day.isBefore(hotSince);
+    }
+
+    // Move this user's old completed tasks, a batch per transaction so tasks is never locked for long. Returns how many moved
+    public static int archiveCompleted(String username) {
+        int days = DatabaseConfig.getArchiveAfterDays();
+        // A queued change could refer to a task about to move, the next login tries again
+        if (days <= 0 || !isAvailable() || MutationOutbox.getInstance().hasPending()) {
+            return 0;
+        }
+
+        // tasks_archive is tasks plus archived_at, the deleted rows go across by column name so columns tasks has
+        // and the archive does not (client_key) are left behind
+        String sql = """
+            WITH moved AS (
+                DELETE FROM tasks WHERE id IN (
+                    SELECT id FROM tasks
+                    WHERE username = ? AND is_completed = true AND updated_at < now() - make_interval(days => ?)
+                    ORDER BY updated_at
+                    LIMIT ?
+                )
+                RETURNING *
+            )
+            INSERT INTO tasks_archive
+            SELECT (jsonb_populate_record(NULL::tasks_archive, to_jsonb(moved) || jsonb_build_object('archived_at', now()))).*
+            FROM moved
+        """;
+
+        int archived = 0;
+        try (Connection conn = ConnectionPool.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, username);
+            pstmt.setInt(2, days);
+            pstmt.setInt(3, BATCH_SIZE);
+            int moved;
+            do {
+                moved = pstmt.executeUpdate();
+                archived += moved;
+            } while (moved == BATCH_SIZE);
+
+        } catch (SQLException | IllegalStateException e) {
+            System.err.println("Error archiving completed tasks: " + e.getMessage());
+        }
+
+        if (archived > 0) {
+            ConnectionPool.recordWrite(username);
+            LocalReplica.requestSync(username);
+        }
+        return archived;
+    }
+
+    public static int getArchivedCount(String username) {
+        if (!isAvailable()) {
+            return 0;
+        }
+        try (Connection conn = ConnectionPool.getReadConnection(username);
+             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) AS count FROM tasks_archive WHERE username = ?")) {
+
+            pstmt.setString(1, username);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt("count");
+            }
+
+        } catch (SQLException | IllegalStateException e) {
+            System.err.println("Error getting archived task count: " + e.getMessage());
+        }
+
+        return 0;
+    }
+
+    // Archived tasks, most recently completed first. Rows are fetched FETCH_SIZE at a time as the stream is consumed,
+    // the stream holds a pooled connection until it is closed, so use it in try-with-resources
+    public static Stream<ArchivedTask> browse(String username) throws SQLException {
+        if (!isAvailable()) {
+            return Stream.empty();
+        }
+        Connection conn = ConnectionPool.getReadConnection(username);
+        try {
+            // pgjdbc only uses a cursor when autocommit is off, the pool resets it when the connection comes back
+            conn.setAutoCommit(false);
+            PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT id, task_name, task_type, priority, due_date, updated_at, archived_at FROM tasks_archive " +
+                    "WHERE username = ? ORDER BY updated_at DESC, id DESC");
+            pstmt.setFetchSize(FETCH_SIZE);
+            pstmt.setString(1, username);
+            ResultSet rs = pstmt.executeQuery();
+
+            Spliterator<ArchivedTask> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super ArchivedTask> action) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        action.accept(toArchivedTask(rs));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Error reading task archive: " + e.getMessage(), e);
+                    }
+                }
+            };
+            return StreamSupport.stream(rows, false).onClose(() -> close(conn));
+
+        } catch (SQLException e) {
+            close(conn);
+            throw e;
+        }
+    }
+
+    private static void close(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing archive cursor: " + e.getMessage());
+        }
+    }
+
+    private static ArchivedTask toArchivedTask(ResultSet rs) throws SQLException {
+        String taskName = rs.getString("task_name");
+        Task.Priority priority = Task.Priority.valueOf(rs.getString("priority"));
+        Date dueDate = rs.getDate("due_date");
+
+        Task task;
+        if ("Deadline".equals(rs.getString("task_type")) && dueDate != null) {
+            task = new DeadlineTask(taskName, dueDate.toLocalDate(), priority);
+        } else {
+            task = new NormalTask(taskName, priority);
+        }
+        task.complete();
+        task.setId(rs.getLong("id"));
+
+        return new ArchivedTask(task, rs.getTimestamp("updated_at").toLocalDateTime(), rs.getTimestamp("archived_at").toLocalDateTime());
+    }
+}
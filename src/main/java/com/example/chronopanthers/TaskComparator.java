@@ -1,51 +1,41 @@
 package com.example.chronopanthers;
 
 import java.util.Comparator;
+import java.util.List;
 
+import static com.example.chronopanthers.TaskSortKeys.Column.*;
+
+// Orders tasks by a chain of columns, see TaskSortKeys. Each sort mode puts open tasks first and breaks ties on the
+// name, so the same tasks always come out in the same order. TaskIndex keeps the loaded tasks in these orders
 public class TaskComparator implements Comparator<Task> {
     public enum SortMode {DEADLINE_FIRST, NAME, PRIORITY, NIL}
 
-    private SortMode mode;
+    private final TaskSortKeys.Column[] chain;
 
     public TaskComparator(SortMode mode) {
-        this.mode = mode;
+        this(chainOf(mode));
+    }
+
+    public TaskComparator(List<TaskSortKeys.Column> chain) {
+        this.chain = chain.toArray(new TaskSortKeys.Column[0]);
+    }
+
+    public static List<TaskSortKeys.Column> chainOf(SortMode mode) {
+        return switch (mode) {
+            case DEADLINE_FIRST -> List.of(COMPLETION, DEADLINE, NAME); // tasks without a deadline last, by name
+            case NAME -> List.of(COMPLETION, NAME);
+            case PRIORITY -> List.of(COMPLETION, PRIORITY, NAME);
+            case NIL -> List.of(COMPLETION); // otherwise load order
+        };
     }
 
     @Override
     public int compare(Task o1, Task o2) {
-        if (o1.getIsCompleted() && !o2.getIsCompleted()) {
-            return 1; // o1 is completed, but o2 is not
-        } else if (!o1.getIsCompleted() && o2.getIsCompleted()) {
-            return -1; //o1 not completed, but o2 is
-        } else if (mode == SortMode.DEADLINE_FIRST) {
-            // deadline tasks before normal task
-            // deadline tasks to be sorted by deadline
-            // completed tasks to be at the bottom
-            if (o1 instanceof DeadlineTask && !(o2 instanceof DeadlineTask)) {
-                // both completed
-                // or both not completed
-                return -1; // o1 is deadline task, o2 is not;
-            } else if (!(o1 instanceof DeadlineTask) && o2 instanceof DeadlineTask) {
-                // both completed
-                // or both not completed
-                return 1; // o2 is deadline task, o1 is not;
-            } else if (o1 instanceof DeadlineTask && o2 instanceof DeadlineTask) {
-                // both deadline
-                return o1.getDeadline().compareTo(o2.getDeadline());
-            } else {
-                //both normal
-                return 0;
+        for (TaskSortKeys.Column column : chain) {
+            int c = column.compare(o1, o2);
+            if (c != 0) {
+                return c;
             }
-        } else if (mode == SortMode.NAME) {
-            // alphabetically sort
-            return o1.getTaskName().compareToIgnoreCase(o2.getTaskName());
-        } else if (mode == SortMode.PRIORITY) {
-                // both completed
-                // or both not completed
-                return Integer.compare(o1.getPriority().getLevel(), o2.getPriority().getLevel());
-        } else if (mode == SortMode.NIL) {
-            // Still TO DO
-            return 0;
         }
         return 0;
     }
@@ -0,0 +1,8 @@
+package com.example.chronopanthers;
+
+// Everything the Task Manager page shows first, fetched in a single round trip
+public record TaskDashboard(TaskPage firstPage, int totalCount, int completedCount, int overdueCount) {
+    public int pendingCount() {
+        return totalCount - completedCount;
+    }
+}
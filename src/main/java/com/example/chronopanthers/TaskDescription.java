@@ -71,12 +71,24 @@ public class TaskDescription implements Initializable {
             return;
         }
 
-        // Check for duplicate task
-        if (!isEditing && TaskDatabaseManager.taskExists(user, taskname)) {
-            label.setText("Task with this name already exists!");
+        if (isEditing) {
+            createTask(taskname, isNormal, priority, date);
             return;
         }
 
+        // Check for duplicate task in the background, the dialog stays responsive meanwhile
+        addTaskButton.setDisable(true);
+        AsyncDatabase.onFx(AsyncDatabase.taskExists(user, taskname), exists -> {
+            addTaskButton.setDisable(false);
+            if (exists) {
+                label.setText("Task with this name already exists!");
+            } else {
+                createTask(taskname, isNormal, priority, date);
+            }
+        });
+    }
+
+    private void createTask(String taskname, boolean isNormal, Task.Priority priority, LocalDate date) {
         if (isNormal) {
             task = new NormalTask(taskname, priority);
         } else {
@@ -0,0 +1,161 @@
+package com.example.chronopanthers;
+
+import javafx.animation.PauseTransition;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// Filtering and sorting for the task table, kept off the FX thread. The TaskIndex lives on one worker thread, and every
+// change to the loaded tasks and every new query is queued there in order. Typing is debounced, queued refreshes
+// collapse into one for the newest query, and the table only receives the rows that appeared or went away.
+public class TaskFilter {
+    private static final Duration DEBOUNCE = Duration.millis(150);
+
+    // Shared by every task page, a page left behind just stops getting work
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "task-filter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public record Query(String search, Task.Priority priority, String type, TaskComparator.SortMode mode) {}
+
+    // One step turning the table's rows into the new result, applied in order
+    private record Edit(int at, int removed, List<Task> inserted) {}
+
+    private final TaskIndex index = new TaskIndex(); // worker thread only
+    private List<Task> shown = List.of(); // worker thread only, what the table holds once every queued edit is applied
+    private final ObservableList<Task> visible = FXCollections.observableArrayList(); // FX thread only
+
+    private volatile Query query = new Query(null, null, "All", TaskComparator.SortMode.NIL);
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private final PauseTransition debounce = new PauseTransition(DEBOUNCE);
+
+    public TaskFilter() {
+        debounce.setOnFinished(e -> refresh());
+    }
+
+    // The table's items
+    public ObservableList<Task> getVisibleTasks() {
+        return visible;
+    }
+
+    // From the search box and the filter boxes, applied once the user stops typing
+    public void setQueryDebounced(Query next) {
+        query = next;
+        debounce.playFromStart();
+    }
+
+    // From the sort box, applied straight away
+    public void setQuery(Query next) {
+        query = next;
+        debounce.stop();
+        refresh();
+    }
+
+    // Run the newest query, any number of calls made before the worker gets to it cost one query
+    private void refresh() {
+        if (refreshQueued.compareAndSet(false, true)) {
+            submit(index -> refreshQueued.set(false));
+        }
+    }
+
+    // Change the loaded tasks on the worker thread. The returned future completes on the FX thread once the table shows the result
+    public CompletableFuture<Void> edit(Consumer<TaskIndex> change) {
+        return submit(change);
+    }
+
+    private CompletableFuture<Void> submit(Consumer<TaskIndex> change) {
+        return CompletableFuture.supplyAsync(() -> {
+                    change.accept(index);
+                    Query current = query; // read after the change, so a query set meanwhile is not missed
+                    List<Task> next = index.query(current.search(), current.priority(), current.type(), current.mode());
+                    List<Edit> edits = diff(shown, next);
+                    shown = next;
+                    return edits;
+                }, worker)
+                .thenAcceptAsync(this::apply, AsyncDatabase.FX_THREAD)
+                .exceptionally(e -> {
+                    System.err.println("Error filtering tasks: " + e.getMessage());
+                    return null;
+                });
+    }
+
+    private void apply(List<Edit> edits) {
+        for (Edit edit : edits) {
+            if (edit.at() == 0 && edit.removed() == visible.size()) {
+                visible.setAll(edit.inserted());
+                continue;
+            }
+            if (edit.removed() > 0) {
+                visible.remove(edit.at(), edit.at() + edit.removed());
+            }
+            if (!edit.inserted().isEmpty()) {
+                visible.addAll(edit.at(), edit.inserted());
+            }
+        }
+    }
+
+    // Edits turning old into next, comparing tasks by identity. The unchanged ends are skipped; the middle becomes
+    // removals when next only lost rows (narrowing a filter), inserts when it only gained rows (widening one or a new
+    // page), and a single replacement otherwise (a new sort order)
+    private static List<Edit> diff(List<Task> old, List<Task> next) {
+        int prefix = 0;
+        int limit = Math.min(old.size(), next.size());
+        while (prefix < limit && old.get(prefix) == next.get(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < limit - prefix && old.get(old.size() - 1 - suffix) == next.get(next.size() - 1 - suffix)) {
+            suffix++;
+        }
+        List<Task> removedFrom = old.subList(prefix, old.size() - suffix);
+        List<Task> addedFrom = next.subList(prefix, next.size() - suffix);
+
+        List<Edit> edits = new ArrayList<>();
+        if (removedFrom.isEmpty() && addedFrom.isEmpty()) {
+            return edits;
+        }
+        if (runs(removedFrom, addedFrom, prefix, true, edits) || runs(addedFrom, removedFrom, prefix, false, edits)) {
+            return edits;
+        }
+        edits.clear();
+        edits.add(new Edit(prefix, removedFrom.size(), List.copyOf(addedFrom)));
+        return edits;
+    }
+
+    // When every row of part appears in longer in the same order, add one edit per run of rows only longer has:
+    // removals when removing, inserts otherwise. Positions allow for the earlier edits, so the edits apply in order
+    private static boolean runs(List<Task> longer, List<Task> part, int offset, boolean removing, List<Edit> edits) {
+        int i = 0;
+        int j = 0;
+        while (i < longer.size()) {
+            if (j < part.size() && longer.get(i) == part.get(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            int start = i;
+            while (i < longer.size() && (j >= part.size() || longer.get(i) != part.get(j))) {
+                i++;
+            }
+            int at = offset + (removing ? j : start);
+            edits.add(removing
+                    ? new Edit(at, i - start, List.of())
+                    : new Edit(at, 0, List.copyOf(longer.subList(start, i))));
+        }
+        if (j < part.size()) {
+            edits.clear();
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.chronopanthers;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// The rows loaded on the task page, indexed so a filter or sort change never re-lowercases names or re-sorts the list.
+// Every task gets a slot number. Priority, type and completion are BitSets of slots, so a filter is a few word-wise ANDs,
+// and deadline and name order are kept in sorted arrays of slots, so a sort is a linear walk.
+// Adds, edits and removals update every index in place. Not thread-safe, TaskFilter keeps it on its worker thread.
+public class TaskIndex {
+    private final List<Task> tasks = new ArrayList<>(); // by slot, null once removed
+    private final List<String> names = new ArrayList<>(); // lower-case task name by slot
+    private final TrigramIndex nameSearch = new TrigramIndex();
+    // The last search and its matches, a narrower search only looks among these. Dropped on any change
+    private String lastSearch;
+    private int[] lastMatches;
+    private final BitSet live = new BitSet();
+    private final BitSet completed = new BitSet();
+    private final BitSet unsaved = new BitSet(); // id 0, matched by name until the database gives them one
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final EnumMap<Task.Priority, BitSet> byPriority = new EnumMap<>(Task.Priority.class);
+    private final Map<String, BitSet> byType = new HashMap<>(); // keyed by lower-case task type
+    // The orders of TaskComparator's chains, remaining ties keep slot order, which is load order
+    private final SortedSlots byDeadline = new SortedSlots(
+            Comparator.comparing((Integer slot) -> tasks.get(slot).getDeadline())
+                    .thenComparing(slot -> names.get(slot)).thenComparingInt(slot -> slot));
+    private final SortedSlots byName = new SortedSlots(
+            Comparator.comparing((Integer slot) -> names.get(slot)).thenComparingInt(slot -> slot));
+
+    // Slots in key order in a plain int array. One slot is placed by binary search, a page of them is sorted on its own
+    // (by TaskSortKeys, in the same order) and merged in, so loading n tasks a page at a time stays O(n log n) overall
+    private static class SortedSlots {
+        private final Comparator<Integer> order;
+        private int[] slots = new int[16];
+        private int size;
+
+        SortedSlots(Comparator<Integer> order) {
+            this.order = order;
+        }
+
+        // Index of slot, or -(insertion point) - 1 like Arrays.binarySearch
+        private int search(int slot) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int c = order.compare(slots[mid], slot);
+                if (c < 0) {
+                    low = mid + 1;
+                } else if (c > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void add(int slot) {
+            int at = search(slot);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, at, slots, at + 1, size - at);
+            slots[at] = slot;
+            size++;
+        }
+
+        // added must already be in key order
+        void addAll(int[] added) {
+            if (added.length < 8) {
+                for (int slot : added) {
+                    add(slot);
+                }
+                return;
+            }
+            // Each new slot finds its place by binary search, the existing runs between them move with arraycopy
+            int[] merged = new int[Math.max(16, Integer.highestOneBit(size + added.length) * 2)];
+            int from = 0;
+            int to = 0;
+            for (int slot : added) {
+                int at = -search(slot) - 1;
+                System.arraycopy(slots, from, merged, to, at - from);
+                to += at - from;
+                from = at;
+                merged[to++] = slot;
+            }
+            System.arraycopy(slots, from, merged, to, size - from);
+            slots = merged;
+            size += added.length;
+        }
+
+        void remove(int slot) {
+            int at = search(slot);
+            if (at >= 0) {
+                System.arraycopy(slots, at + 1, slots, at, size - at - 1);
+                size--;
+            }
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    public TaskIndex() {
+        for (Task.Priority priority : Task.Priority.values()) {
+            byPriority.put(priority, new BitSet());
+        }
+    }
+
+    public int size() {
+        return live.cardinality();
+    }
+
+    public void clear() {
+        lastMatches = null;
+        tasks.clear();
+        names.clear();
+        nameSearch.clear();
+        live.clear();
+        completed.clear();
+        unsaved.clear();
+        slotById.clear();
+        byPriority.values().forEach(BitSet::clear);
+        byType.clear();
+        byDeadline.clear();
+        byName.clear();
+    }
+
+    public void addAll(Collection<? extends Task> added) {
+        List<Integer> withDeadline = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>(added.size());
+        for (Task task : added) {
+            int slot = append(task);
+            if (TaskSortKeys.hasDeadline(task)) {
+                withDeadline.add(slot);
+            }
+            slots.add(slot);
+        }
+        byDeadline.addAll(sorted(withDeadline, List.of(TaskSortKeys.Column.DEADLINE, TaskSortKeys.Column.NAME)));
+        byName.addAll(sorted(slots, List.of(TaskSortKeys.Column.NAME)));
+    }
+
+    // Slots of newly added tasks in the order of chain, ties stay in slot order as the slots are ascending
+    private int[] sorted(List<Integer> slots, List<TaskSortKeys.Column> chain) {
+        List<Task> added = new ArrayList<>(slots.size());
+        for (int slot : slots) {
+            added.add(tasks.get(slot));
+        }
+        int[] order = TaskSortKeys.order(added, chain);
+        int[] sorted = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = slots.get(order[i]);
+        }
+        return sorted;
+    }
+
+    public void add(Task task) {
+        int slot = append(task);
+        if (TaskSortKeys.hasDeadline(task)) {
+            byDeadline.add(slot);
+        }
+        byName.add(slot);
+    }
+
+    private int append(Task task) {
+        int slot = tasks.size();
+        tasks.add(task);
+        names.add(null);
+        index(slot, task);
+        return slot;
+    }
+
+    public boolean contains(Task task) {
+        return slotOf(task) >= 0;
+    }
+
+    // Replace the stored copy of this task (same id, or same name for one without an id), or add it if it is new.
+    // Also how a stored task changed in place, e.g. by Task.complete(), gets re-indexed
+    public void put(Task task) {
+        int slot = slotOf(task);
+        if (slot < 0) {
+            add(task);
+            return;
+        }
+        unindex(slot);
+        tasks.set(slot, task);
+        index(slot, task);
+        if (TaskSortKeys.hasDeadline(task)) {
+            byDeadline.add(slot);
+        }
+        byName.add(slot);
+    }
+
+    public boolean remove(Task task) {
+        int slot = slotOf(task);
+        if (slot < 0) {
+            return false;
+        }
+        unindex(slot);
+        tasks.set(slot, null);
+        return true;
+    }
+
+    // By id, or for a task added here that has not been given its id yet by its client key (by name without one)
+    private int slotOf(Task task) {
+        if (task.getId() != 0) {
+            Integer slot = slotById.get(task.getId());
+            if (slot != null) {
+                return slot;
+            }
+        }
+        for (int s = unsaved.nextSetBit(0); s >= 0; s = unsaved.nextSetBit(s + 1)) {
+            Task candidate = tasks.get(s);
+            boolean same = task.getClientKey() != null && candidate.getClientKey() != null
+                    ? task.getClientKey().equals(candidate.getClientKey())
+                    : candidate.getTaskName().equals(task.getTaskName());
+            if (same) {
+                return s;
+            }
+        }
+        return -1;
+    }
+
+    // Everything but the sorted arrays, which the callers fill so a whole page can be merged at once
+    private void index(int slot, Task task) {
+        lastMatches = null;
+        names.set(slot, normalise(task.getTaskName()));
+        nameSearch.add(slot, names.get(slot));
+        live.set(slot);
+        completed.set(slot, task.getIsCompleted());
+        if (task.getId() == 0) {
+            unsaved.set(slot);
+        } else {
+            slotById.put(task.getId(), slot);
+        }
+        byPriority.get(task.getPriority()).set(slot);
+        byType.computeIfAbsent(normalise(task.getTaskType()), type -> new BitSet()).set(slot);
+    }
+
+    // Must run while tasks and names still hold the old values, the sorted arrays look them up to find the slot
+    private void unindex(int slot) {
+        lastMatches = null;
+        Task task = tasks.get(slot);
+        if (TaskSortKeys.hasDeadline(task)) {
+            byDeadline.remove(slot);
+        }
+        byName.remove(slot);
+        nameSearch.remove(slot);
+        byPriority.get(task.getPriority()).clear(slot);
+        byType.get(normalise(task.getTaskType())).clear(slot);
+        slotById.remove(task.getId(), slot);
+        unsaved.clear(slot);
+        completed.clear(slot);
+        live.clear(slot);
+    }
+
+    static String normalise(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    // Tasks whose name matches search (see TrigramIndex) with the given priority and type, a null or empty argument or
+    // type "All" matches everything. Open tasks come before completed ones, each group in the order of the sort mode,
+    // or best match first while searching without a sort mode
+    public List<Task> query(String search, Task.Priority priority, String type, TaskComparator.SortMode mode) {
+        BitSet rows = (BitSet) live.clone();
+        if (priority != null) {
+            rows.and(byPriority.get(priority));
+        }
+        if (type != null && !type.equals("All")) {
+            rows.and(byType.getOrDefault(normalise(type), new BitSet()));
+        }
+        int[] matches = null;
+        if (search != null && !search.isEmpty()) {
+            boolean narrowed = lastMatches != null && TrigramIndex.narrows(lastSearch, search);
+            matches = nameSearch.searchIds(search, narrowed ? lastMatches : null);
+            lastSearch = search;
+            lastMatches = matches;
+            BitSet found = new BitSet();
+            for (int slot : matches) {
+                found.set(slot);
+            }
+            rows.and(found);
+        }
+
+        List<Task> result = new ArrayList<>(rows.cardinality());
+        BitSet open = (BitSet) rows.clone();
+        open.andNot(completed);
+        rows.and(completed);
+        if (matches != null && (mode == null || mode == TaskComparator.SortMode.NIL)) {
+            appendRanked(matches, open, result);
+            appendRanked(matches, rows, result);
+        } else {
+            appendInOrder(open, mode, result);
+            appendInOrder(rows, mode, result);
+        }
+        return result;
+    }
+
+    private void appendRanked(int[] matches, BitSet rows, List<Task> out) {
+        for (int slot : matches) {
+            if (rows.get(slot)) {
+                out.add(tasks.get(slot));
+            }
+        }
+    }
+
+    private void appendInOrder(BitSet rows, TaskComparator.SortMode mode, List<Task> out) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        switch (mode == null ? TaskComparator.SortMode.NIL : mode) {
+            case DEADLINE_FIRST -> {
+                // Deadline tasks by date, then the rest by name
+                BitSet rest = (BitSet) rows.clone();
+                for (int i = 0; i < byDeadline.size; i++) {
+                    int slot = byDeadline.slots[i];
+                    if (rows.get(slot)) {
+                        out.add(tasks.get(slot));
+                        rest.clear(slot);
+                    }
+                }
+                appendByName(rest, out);
+            }
+            case NAME -> appendByName(rows, out);
+            case PRIORITY -> {
+                // EnumMap iterates in declaration order, which is level order
+                for (BitSet level : byPriority.values()) {
+                    BitSet inLevel = (BitSet) rows.clone();
+                    inLevel.and(level);
+                    appendByName(inLevel, out);
+                }
+            }
+            default -> appendSlots(rows, out);
+        }
+    }
+
+    private void appendByName(BitSet rows, List<Task> out) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < byName.size; i++) {
+            int slot = byName.slots[i];
+            if (rows.get(slot)) {
+                out.add(tasks.get(slot));
+            }
+        }
+    }
+
+    private void appendSlots(BitSet rows, List<Task> out) {
+        for (int slot = rows.nextSetBit(0); slot >= 0; slot = rows.nextSetBit(slot + 1)) {
+            out.add(tasks.get(slot));
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package com.example.chronopanthers;
 
-import javafx.collections.FXCollections;
+import javafx.application.Platform;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -12,16 +11,22 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class TaskManager implements Initializable {
     @FXML
@@ -49,6 +54,12 @@ public class TaskManager implements Initializable {
     @FXML
     private Button refreshButton;
     @FXML
+    private Button importButton;
+    @FXML
+    private Button exportButton;
+    @FXML
+    private ProgressBar transferProgress;
+    @FXML
     private Label usernameLabel;
     @FXML
     private Label taskStatsLabel;
@@ -61,9 +72,17 @@ public class TaskManager implements Initializable {
     @FXML
     private NavigationController navigationBarController;
 
-    private ObservableList<Task> tasks = FXCollections.observableArrayList();
+    static final int PAGE_SIZE = 100;
+    private static final int PREFETCH_ROWS = 20; // start fetching the next page this many rows before the end
+
+    private final TaskFilter taskFilter = new TaskFilter(); // every loaded task, filtered and sorted off the FX thread
+    private final ObservableList<Task> tasks = taskFilter.getVisibleTasks(); // the ones passing the filters, in sort order
     private String currentUsername;
-    private FilteredList<Task> filteredTasks;
+
+    // Paging state, only touched on the FX thread
+    private TaskPage.Cursor nextPage;
+    private boolean loadingPage = false;
+    private int listing = 0; // bumped on every reload so pages of an older listing are dropped
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -76,9 +95,6 @@ public class TaskManager implements Initializable {
         overdue.setCellValueFactory(new PropertyValueFactory<Task, Boolean>("isOverdue"));
         priority.setCellValueFactory(new PropertyValueFactory<Task, String>("priority"));
 
-        // Tasks to be in this list for filtering
-        filteredTasks = new FilteredList<>(tasks, p -> true);
-
         typeFilter.getItems().addAll("All", "Normal", "Deadline");
         typeFilter.setValue("All");
 
@@ -89,24 +105,39 @@ public class TaskManager implements Initializable {
         sortBox.getItems().addAll(TaskComparator.SortMode.values());
         sortBox.setValue(TaskComparator.SortMode.NIL);
 
+        // Import and export go straight to Supabase, so they are hidden when the tasks are stored anywhere else
+        importButton.setVisible(TaskTransfer.isAvailable());
+        exportButton.setVisible(TaskTransfer.isAvailable());
+
 
         searchName.textProperty().addListener((obs, oldVal, newVal) -> {
-            updateFilter(filteredTasks);
+            taskFilter.setQueryDebounced(currentQuery());
         });
 
         typeFilter.valueProperty().addListener((obs, oldVal, newVal) -> {
-            updateFilter(filteredTasks);
+            taskFilter.setQueryDebounced(currentQuery());
         });
 
         priorityFilter.valueProperty().addListener((obs, oldVal, newVal) -> {
-            updateFilter(filteredTasks);
+            taskFilter.setQueryDebounced(currentQuery());
         });
 
         sortBox.valueProperty().addListener((obs, oldVal, newVal) -> {
             sortTasks();
         });
 
-        taskTable.setItems(filteredTasks);
+        taskTable.setItems(tasks);
+
+        // Rows are only built for the visible part of the table, so a row near the end coming into view means the user has scrolled there
+        taskTable.setRowFactory(table -> new TableRow<>() {
+            @Override
+            protected void updateItem(Task task, boolean empty) {
+                super.updateItem(task, empty);
+                if (!empty && getIndex() >= table.getItems().size() - PREFETCH_ROWS) {
+                    loadNextPage();
+                }
+            }
+        });
 
         
 
@@ -115,27 +146,18 @@ public class TaskManager implements Initializable {
         updateLabels();
 
         // Test database connection
-        if (TaskDatabaseManager.testConnection()) {
-            //System.out.println("✓ Task database connection successful");
-        } else {
-            sorterLabel.setText("Database connection failed");
-        }
+        AsyncDatabase.onFx(AsyncDatabase.testConnection(), connected -> {
+            if (!connected) {
+                sorterLabel.setText("Database connection failed");
+            }
+        });
 
 
 
     }
 
-    private void updateFilter(FilteredList<Task> filteredList) {
-        String prefix = searchName.getText().toLowerCase();
-        Task.Priority priority = priorityFilter.getValue(); // can be null
-        String type = typeFilter.getValue();
-
-        filteredList.setPredicate(task -> {
-            boolean matchName = prefix == null || prefix.isEmpty() || task.getTaskName().toLowerCase().contains(prefix);
-            boolean matchPriority = priority == null || task.getPriority().equals(priority);
-            boolean matchType = type.equals("All") || task.getTaskType().equalsIgnoreCase(type);
-            return matchName && matchType && matchPriority;
-        });
+    private TaskFilter.Query currentQuery() {
+        return new TaskFilter.Query(searchName.getText(), priorityFilter.getValue(), typeFilter.getValue(), sortBox.getValue());
     }
 
     // Method to set the current user (call this from your main controller)
@@ -143,6 +165,8 @@ public class TaskManager implements Initializable {
         this.currentUsername = username;
         updateLabels();
         loadUserTasks();
+        ChangeFeed.setTaskListener(this::applyChanges);
+        DayClock.setRolloverListener(taskTable::refresh); // tasks due yesterday show as overdue from midnight
 
         if (navigationBarController != null) {
             navigationBarController.setCurrentUser(username);
@@ -150,52 +174,124 @@ public class TaskManager implements Initializable {
     }
 
     private void updateLabels() {
-        if (currentUsername != null) {
-            if (usernameLabel != null) {
-                usernameLabel.setText("Tasks for: " + currentUsername);
-            }
-            updateTaskStats();
+        if (currentUsername != null && usernameLabel != null) {
+            usernameLabel.setText("Tasks for: " + currentUsername);
         }
     }
 
-    private void updateTaskStats() {
-        if (taskStatsLabel != null && currentUsername != null) {
-            int totalTasks = TaskDatabaseManager.getUserTaskCount(currentUsername);
-            int completedTasks = TaskDatabaseManager.getUserCompletedTaskCount(currentUsername);
-            int pendingTasks = totalTasks - completedTasks;
+    private void updateTaskStats(TaskDashboard dashboard) {
+        updateTaskStats(dashboard.totalCount(), dashboard.completedCount());
+    }
 
+    private void updateTaskStats(int totalCount, int completedCount) {
+        if (taskStatsLabel != null) {
             taskStatsLabel.setText(String.format("Total: %d | Completed: %d | Pending: %d",
-                    totalTasks, completedTasks, pendingTasks));
+                    totalCount, completedCount, totalCount - completedCount));
         }
     }
 
-    // Load tasks from database
-    public void loadUserTasks() {
+    // Load the counts and the first page of tasks in a single round trip, later pages follow as the table scrolls.
+    // The returned future completes on the FX thread once the table shows the new listing.
+    public CompletableFuture<Void> loadUserTasks() {
         if (currentUsername == null) {
             sorterLabel.setText("No user logged in");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
-        try {
-            List<Task> userTasks = TaskDatabaseManager.getUserTasks(currentUsername);
-            tasks.clear();
-            tasks.addAll(userTasks);
+        int requestedFor = ++listing;
+        loadingPage = false;
+        nextPage = null;
+        return UserSession.getTaskDashboard(currentUsername).handleAsync((dashboard, error) -> {
+            if (requestedFor != listing) {
+                return CompletableFuture.<Void>completedFuture(null); // a newer reload is already in flight
+            }
+            if (error != null) {
+                sorterLabel.setText("Failed to load tasks");
+                System.err.println("Error loading tasks: " + error.getMessage());
+                return CompletableFuture.<Void>completedFuture(null);
+            }
 
-            sorterLabel.setText("Loaded " + userTasks.size() + " tasks");
-            updateTaskStats();
+            nextPage = dashboard.firstPage().next();
+            CompletableFuture<Void> shown = taskFilter.edit(index -> {
+                index.clear();
+                index.addAll(dashboard.firstPage().tasks());
+            });
+
+            sorterLabel.setText("Loaded " + dashboard.pendingCount() + " tasks");
+            updateTaskStats(dashboard);
 
             // Check for overdue tasks
-            List<Task> overdueTasks = TaskDatabaseManager.getOverdueTasks(currentUsername);
-            if (!overdueTasks.isEmpty()) {
-                sorterLabel.setText(sorterLabel.getText() + " (" + overdueTasks.size() + " overdue!)");
+            if (dashboard.overdueCount() > 0) {
+                sorterLabel.setText(sorterLabel.getText() + " (" + dashboard.overdueCount() + " overdue!)");
+            }
+            return shown;
+        }, AsyncDatabase.FX_THREAD).thenCompose(shown -> shown);
+    }
+
+    // Reload, then replace the "Loaded n tasks" text with the outcome of the action that caused the reload
+    private void reloadWithStatus(String status) {
+        loadUserTasks().thenRun(() -> sorterLabel.setText(status));
+    }
+
+    // Live changes from the change feed, applied to the rows already loaded instead of reloading the list
+    private void applyChanges(List<ChangeFeed.TaskChange> changes) {
+        for (ChangeFeed.TaskChange change : changes) {
+            if (change.kind() == ChangeFeed.Kind.REFRESH) {
+                loadUserTasks();
+                return;
             }
+        }
 
-        } catch (Exception e) {
-            sorterLabel.setText("Failed to load tasks");
-            System.err.println("Error loading tasks: " + e.getMessage());
+        // Paging state is FX-only, so decide here which unseen tasks belong to the loaded pages
+        List<Boolean> loaded = new ArrayList<>(changes.size());
+        for (ChangeFeed.TaskChange change : changes) {
+            loaded.add(nextPage == null || !change.createdAt().isBefore(nextPage.createdAt()));
         }
+        taskFilter.edit(index -> {
+            for (int i = 0; i < changes.size(); i++) {
+                ChangeFeed.TaskChange change = changes.get(i);
+                Task task = change.task();
+                if (change.kind() == ChangeFeed.Kind.DELETE || task.getIsCompleted()) {
+                    index.remove(task);
+                } else if (index.contains(task)) {
+                    index.put(task);
+                } else if (loaded.get(i)) {
+                    index.add(task); // older tasks arrive with their page
+                }
+            }
+        });
+        refreshTaskStats();
+    }
+
+    private void refreshTaskStats() {
+        CompletableFuture<Integer> total = AsyncDatabase.getUserTaskCount(currentUsername);
+        CompletableFuture<Integer> completed = AsyncDatabase.getUserCompletedTaskCount(currentUsername);
+        AsyncDatabase.onFx(total.thenCombine(completed, (t, c) -> new int[]{t, c}),
+                counts -> updateTaskStats(counts[0], counts[1]));
     }
 
+    private void loadNextPage() {
+        if (nextPage == null || loadingPage || currentUsername == null) {
+            return;
+        }
+
+        loadingPage = true;
+        int requestedFor = listing;
+        AsyncDatabase.onFx(AsyncDatabase.getUserTasksPage(currentUsername, nextPage, PAGE_SIZE), page -> {
+            if (requestedFor != listing) {
+                return; // the list was reloaded while this page was in flight
+            }
+            loadingPage = false;
+            nextPage = page.next();
+            taskFilter.edit(index -> index.addAll(page.tasks())).thenRun(() -> {
+                // A filter can hide the whole page, keep going until the table has enough rows to scroll
+                double visibleRows = taskTable.getHeight() / taskTable.getFixedCellSize();
+                if (requestedFor == listing && tasks.size() < visibleRows + PREFETCH_ROWS) {
+                    loadNextPage();
+                }
+            });
+        });
+    }
 
     @FXML
     public void addTask() throws IOException {
@@ -221,16 +317,15 @@ public class TaskManager implements Initializable {
 
 
         if (task != null) {
-            // Save to database
-            boolean success = TaskDatabaseManager.addTask(currentUsername, task);
-
-            if (success) {
-                // Reload tasks from database to get the latest data
-                loadUserTasks();
-                sorterLabel.setText("Task added successfully!");
-            } else {
-                sorterLabel.setText("Failed to add task to database");
-            }
+            // Save to database without blocking the FX thread
+            AsyncDatabase.onFx(AsyncDatabase.addTask(currentUsername, task), success -> {
+                if (success) {
+                    // Reload tasks from database to get the latest data
+                    reloadWithStatus("Task added successfully!");
+                } else {
+                    sorterLabel.setText("Failed to add task to database");
+                }
+            });
         }
     }
 
@@ -239,7 +334,7 @@ public class TaskManager implements Initializable {
         TaskComparator.SortMode selectedMode = sortBox.getValue();
         if (selectedMode != null) {
             sorterLabel.setText("");
-            FXCollections.sort(tasks, new TaskComparator(selectedMode));
+            taskFilter.setQuery(currentQuery());
         } else {
             sorterLabel.setText("Choose a sorter!");
         }
@@ -258,19 +353,16 @@ public class TaskManager implements Initializable {
             return;
         }
 
-        // Update in database
-        boolean success = TaskDatabaseManager.updateTaskCompletion(
-                currentUsername,
-                selectedTask.getTaskName(),
-                true
-        );
-
-        if (success) {
-            loadUserTasks();
-            sorterLabel.setText("Task marked as completed!");
-        } else {
-            sorterLabel.setText("Failed to update task in database");
-        }
+        // Update in database without blocking the FX thread
+        completeTaskButton.setDisable(true);
+        AsyncDatabase.onFx(AsyncDatabase.updateTaskCompletion(currentUsername, selectedTask, true), success -> {
+            completeTaskButton.setDisable(false);
+            if (success) {
+                reloadWithStatus("Task marked as completed!");
+            } else {
+                sorterLabel.setText("Failed to update task in database");
+            }
+        });
     }
 
     @FXML
@@ -289,20 +381,18 @@ public class TaskManager implements Initializable {
 
         if (confirmation.showAndWait().get() == ButtonType.OK) {
             // Delete from database
-            boolean success = TaskDatabaseManager.deleteTask(currentUsername, selectedTask.getTaskName());
-
-            if (success) {
-                // Remove from local list
-                tasks.remove(selectedTask);
-                updateTaskStats();
-                sorterLabel.setText("Task deleted successfully!");
-            } else {
-                sorterLabel.setText("Failed to delete task from database");
-            }
+            AsyncDatabase.onFx(AsyncDatabase.deleteTask(currentUsername, selectedTask), success -> {
+                if (success) {
+                    // Reload list and counts together
+                    reloadWithStatus("Task deleted successfully!");
+                } else {
+                    sorterLabel.setText("Failed to delete task from database");
+                }
+            });
         }
     }
 
-    // Delete Task and Add Task after Edit
+    // Edit the selected task in place, it keeps its id and creation time
     public void editTask() throws IOException {
         Task selectedTask = taskTable.getSelectionModel().getSelectedItem();
         if (selectedTask == null) {
@@ -326,18 +416,109 @@ public class TaskManager implements Initializable {
 
         Task editedTask = taskDescription.getTask();
         if (editedTask != null) {
-            boolean deleted = TaskDatabaseManager.deleteTask(currentUsername, selectedTask.getTaskName());
+            AsyncDatabase.onFx(AsyncDatabase.updateTask(currentUsername, selectedTask, editedTask), success -> {
+                if (success) {
+                    reloadWithStatus("Task edited successfully!");
+                } else {
+                    sorterLabel.setText("Failed to edit in database");
+                }
+            });
 
-            boolean added = TaskDatabaseManager.addTask(currentUsername, editedTask);
-            if (deleted && added) {
-                sorterLabel.setText("Task edited successfully!");
-                loadUserTasks();
-            } else {
-                sorterLabel.setText("Failed to edit in database");
+        }
+
+    }
+
+    // Bulk import from CSV or JSON Lines, runs in the background with progress shown under the buttons
+    @FXML
+    public void importTasks() {
+        if (currentUsername == null) {
+            sorterLabel.setText("Please log in first");
+            return;
+        }
+
+        File file = transferChooser("Import Tasks").showOpenDialog(taskTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        String username = currentUsername;
+        startTransfer();
+        AsyncDatabase.supply(() -> {
+            try {
+                return TaskTransfer.importTasks(username, file.toPath(), this::showTransferProgress);
+            } catch (IOException | SQLException e) {
+                throw new CompletionException(e);
+            }
+        }).whenCompleteAsync((result, error) -> {
+            endTransfer();
+            if (error != null) {
+                sorterLabel.setText("Import failed");
+                System.err.println("Error importing tasks: " + error.getMessage());
+                return;
             }
+            reloadWithStatus("Imported " + result.imported() + " tasks"
+                    + (result.skipped() > 0 ? " (" + result.skipped() + " skipped)" : ""));
+        }, AsyncDatabase.FX_THREAD);
+    }
 
+    @FXML
+    public void exportTasks() {
+        if (currentUsername == null) {
+            sorterLabel.setText("Please log in first");
+            return;
+        }
+
+        FileChooser chooser = transferChooser("Export Tasks");
+        chooser.setInitialFileName(currentUsername + "-tasks.csv");
+        File file = chooser.showSaveDialog(taskTable.getScene().getWindow());
+        if (file == null) {
+            return;
         }
 
+        String username = currentUsername;
+        startTransfer();
+        AsyncDatabase.supply(() -> {
+            try {
+                return TaskTransfer.exportTasks(username, file.toPath(), this::showTransferProgress);
+            } catch (IOException | SQLException e) {
+                throw new CompletionException(e);
+            }
+        }).whenCompleteAsync((count, error) -> {
+            endTransfer();
+            if (error != null) {
+                sorterLabel.setText("Export failed");
+                System.err.println("Error exporting tasks: " + error.getMessage());
+                return;
+            }
+            sorterLabel.setText("Exported " + count + " tasks");
+        }, AsyncDatabase.FX_THREAD);
+    }
+
+    private FileChooser transferChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl", "*.ndjson"));
+        return chooser;
+    }
+
+    private void startTransfer() {
+        importButton.setDisable(true);
+        exportButton.setDisable(true);
+        transferProgress.setProgress(0);
+        transferProgress.setVisible(true);
+    }
+
+    private void endTransfer() {
+        importButton.setDisable(false);
+        exportButton.setDisable(false);
+        transferProgress.setVisible(false);
+    }
+
+    // Called from the transfer thread
+    private void showTransferProgress(double fraction) {
+        Platform.runLater(() -> transferProgress.setProgress(fraction));
     }
 
     private Stage stage;
@@ -360,7 +541,7 @@ public class TaskManager implements Initializable {
         alert.setContentText("Have you completed all your work?");
 
         if (alert.showAndWait().get() == ButtonType.OK) {
-            TimerManager.getInstance().reset();
+            UserSession.logout();
 
             try {
                 Parent root = FXMLLoader.load(getClass().getResource("loginPage.fxml"));
@@ -0,0 +1,15 @@
+package com.example.chronopanthers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// One page of open tasks, newest first. next is where the following page starts, or null after the last page.
+public record TaskPage(List<Task> tasks, Cursor next) {
+    // Keyset position: the (created_at, id) of the last task on the page. The id is the server id on every backend that
+    // has one, the local replica only puts a placeholder above all server ids there for a task not saved yet
+    public record Cursor(LocalDateTime createdAt, long id) {}
+
+    public boolean hasMore() {
+        return next != null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.chronopanthers;
+
+import java.util.List;
+
+// Storage for a user's tasks. TaskDatabaseManager forwards to the implementation chosen in Repositories,
+// so the controllers and AIService never depend on a particular database.
+public interface TaskRepository {
+    boolean addTask(String username, Task task);
+
+    // Case-insensitive, open tasks only
+    boolean taskExists(String username, String taskName);
+
+    // Open tasks, newest first
+    List<Task> getUserTasks(String username);
+
+    // Counts and the first page of open tasks
+    TaskDashboard getTaskDashboard(String username, int pageSize);
+
+    // Open tasks after the cursor, newest first, a null cursor gives the first page
+    TaskPage getUserTasksPage(String username, TaskPage.Cursor after, int pageSize);
+
+    // The task is found by id, or by name when it has no id yet
+    boolean updateTaskCompletion(String username, Task task, boolean completed);
+
+    boolean updateTask(String username, Task original, Task edited);
+
+    boolean deleteTask(String username, Task task);
+
+    int getUserTaskCount(String username);
+
+    int getUserCompletedTaskCount(String username);
+
+    List<Task> getOverdueTasks(String username);
+
+    boolean testConnection();
+
+    // Called once at startup, off the FX thread
+    default void open() {
+    }
+
+    // Called after a successful login
+    default void onLogin(String username) {
+    }
+}
@@ -0,0 +1,398 @@
+package com.example.chronopanthers;
+
+import java.util.*;
+
+// Sorting tasks by a chain of columns without calling a Comparator per comparison. Each column becomes a small
+// non-negative int per task up front, the ints and the first characters of the name are packed into one long, and the
+// longs are radix sorted with the task positions alongside. Only tasks still tied after that read more of their names.
+// The sort is stable, so full ties keep the input order.
+public class TaskSortKeys {
+    // Radix digit, 6 passes cover a long
+    private static final int DIGIT_BITS = 11;
+    private static final int DIGITS = (64 + DIGIT_BITS - 1) / DIGIT_BITS;
+    private static final int DIGIT_MASK = (1 << DIGIT_BITS) - 1;
+
+    public enum Column {
+        COMPLETION, // open tasks first
+        TYPE, // deadline tasks first
+        DEADLINE, // earliest deadline first, tasks without one last
+        PRIORITY, // most urgent level first
+        NAME; // case-insensitive
+
+        // The same order for a single pair, what TaskComparator uses
+        int compare(Task a, Task b) {
+            return switch (this) {
+                case COMPLETION -> Boolean.compare(a.getIsCompleted(), b.getIsCompleted());
+                case TYPE -> Boolean.compare(!hasDeadline(a), !hasDeadline(b));
+                case DEADLINE -> Long.compare(deadlineDay(a), deadlineDay(b));
+                case PRIORITY -> Integer.compare(a.getPriority().getLevel(), b.getPriority().getLevel());
+                case NAME -> compareNames(a.getTaskName(), b.getTaskName());
+            };
+        }
+    }
+
+    // The order of the normalised names, without lower-casing whole strings while the names are ASCII
+    private static int compareNames(String a, String b) {
+        if (a == null || b == null) {
+            return TaskIndex.normalise(a).compareTo(TaskIndex.normalise(b));
+        }
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x >= 128 || y >= 128) {
+                return TaskIndex.normalise(a).compareTo(TaskIndex.normalise(b));
+            }
+            if (x != y) {
+                x = x >= 'A' && x <= 'Z' ? (char) (x + 32) : x;
+                y = y >= 'A' && y <= 'Z' ? (char) (y + 32) : y;
+                if (x != y) {
+                    return x - y;
+                }
+            }
+        }
+        return a.length() - b.length(); // lower-casing never empties the rest of the longer name
+    }
+
+    static boolean hasDeadline(Task task) {
+        return task instanceof DeadlineTask && task.getDeadline() != null;
+    }
+
+    private static long deadlineDay(Task task) {
+        return hasDeadline(task) ? task.getDeadline().toEpochDay() : Long.MAX_VALUE;
+    }
+
+    // Positions in tasks, in the order of the chain
+    public static int[] order(List<? extends Task> tasks, List<Column> chain) {
+        int nameAt = chain.indexOf(Column.NAME);
+        List<Column> packed = nameAt < 0 ? chain : chain.subList(0, nameAt);
+        NamePrefixes names = nameAt < 0 ? null : new NamePrefixes(tasks);
+        int n = tasks.size();
+        int[][] values = new int[packed.size()][];
+        int[] widths = new int[packed.size()];
+        int used = 0;
+        for (int c = 0; c < packed.size(); c++) {
+            values[c] = values(tasks, packed.get(c));
+            int max = 0;
+            for (int v : values[c]) {
+                max = Math.max(max, v);
+            }
+            widths[c] = bitsFor(max);
+            used += widths[c];
+        }
+
+        int[] order;
+        long[] keys = null;
+        int nameChars = 0; // leading name characters packed after the columns
+        if (used > 64) {
+            order = orderUnpacked(values, n);
+        } else {
+            if (names != null && names.exotic.isEmpty()) {
+                nameChars = Math.min(NamePrefixes.BLOCK, (64 - used) / 7);
+            }
+            keys = new long[n];
+            order = new int[n];
+            for (int i = 0; i < n; i++) {
+                long key = 0;
+                for (int c = 0; c < values.length; c++) {
+                    key = key << widths[c] | values[c][i];
+                }
+                if (nameChars > 0) {
+                    key = key << 7 * nameChars | names.prefix(i, nameChars);
+                }
+                keys[i] = key;
+                order[i] = i;
+            }
+            sortByKey(keys, order);
+        }
+        if (names == null) {
+            return order;
+        }
+
+        // Names only decide between tasks that still tie, so most of them are never read past the packed characters
+        Column[] after = chain.subList(nameAt + 1, chain.size()).toArray(new Column[0]);
+        int start = 0;
+        for (int i = 1; i <= n; i++) {
+            boolean runEnds = i == n || (keys != null ? keys[i] != keys[start] : !sameValues(values, order[i], order[start]));
+            if (runEnds) {
+                if (i - start > 1) {
+                    // A 0 in the last packed character means every name in the run has ended, they are the same name
+                    boolean ended = nameChars > 0 && (keys[start] & 0x7F) == 0;
+                    if (!ended) {
+                        sortByName(tasks, names, order, start, i, nameChars, after);
+                    } else if (after.length > 0) {
+                        sortByNormalisedName(tasks, order, start, i, after);
+                    }
+                }
+                start = i;
+            }
+        }
+        return order;
+    }
+
+    // Stable sort of keys as unsigned longs, positions moving with them. Short runs by insertion, longer ones a digit at
+    // a time from the lowest (LSD radix), skipping the digits every key shares such as the top of a narrow column
+    private static void sortByKey(long[] keys, int[] positions) {
+        int n = keys.length;
+        if (n < 64) {
+            for (int i = 1; i < n; i++) {
+                long key = keys[i];
+                int position = positions[i];
+                int j = i - 1;
+                for (; j >= 0 && Long.compareUnsigned(keys[j], key) > 0; j--) {
+                    keys[j + 1] = keys[j];
+                    positions[j + 1] = positions[j];
+                }
+                keys[j + 1] = key;
+                positions[j + 1] = position;
+            }
+            return;
+        }
+
+        int[][] counts = new int[DIGITS][DIGIT_MASK + 2];
+        for (long key : keys) {
+            for (int d = 0; d < DIGITS; d++) {
+                counts[d][(int) (key >>> DIGIT_BITS * d & DIGIT_MASK) + 1]++;
+            }
+        }
+        long[] fromKeys = keys;
+        int[] fromPositions = positions;
+        long[] toKeys = new long[n];
+        int[] toPositions = new int[n];
+        for (int d = 0; d < DIGITS; d++) {
+            int[] next = counts[d];
+            if (next[(int) (keys[0] >>> DIGIT_BITS * d & DIGIT_MASK) + 1] == n) {
+                continue; // every key has this digit
+            }
+            for (int b = 1; b < next.length; b++) {
+                next[b] += next[b - 1];
+            }
+            for (int i = 0; i < n; i++) {
+                int at = next[(int) (fromKeys[i] >>> DIGIT_BITS * d & DIGIT_MASK)]++;
+                toKeys[at] = fromKeys[i];
+                toPositions[at] = fromPositions[i];
+            }
+            long[] swapKeys = fromKeys;
+            fromKeys = toKeys;
+            toKeys = swapKeys;
+            int[] swapPositions = fromPositions;
+            fromPositions = toPositions;
+            toPositions = swapPositions;
+        }
+        if (fromKeys != keys) {
+            System.arraycopy(fromKeys, 0, keys, 0, n);
+            System.arraycopy(fromPositions, 0, positions, 0, n);
+        }
+    }
+
+    private static boolean sameValues(int[][] values, int a, int b) {
+        for (int[] column : values) {
+            if (column[a] != column[b]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The first CHARS lower-cased characters of every name, read once in input order. 7 bits each, the character plus
+    // one and 0 past the end so shorter names sort first, BLOCK to a long and a task's longs side by side. Names with a
+    // character outside ASCII are marked exotic, lower-casing those can change what comes before them, so they are
+    // only compared as normalised Strings
+    private static class NamePrefixes {
+        static final int BLOCK = 9;
+        static final int BLOCKS = 2;
+        static final int CHARS = BLOCK * BLOCKS;
+
+        final long[] blocks;
+        final BitSet exotic = new BitSet();
+
+        NamePrefixes(List<? extends Task> tasks) {
+            blocks = new long[tasks.size() * BLOCKS];
+            for (int i = 0; i < tasks.size(); i++) {
+                String name = tasks.get(i).getTaskName();
+                for (int k = 0; k < CHARS; k++) {
+                    int c = charAt(name, k);
+                    if (c < 0) {
+                        exotic.set(i);
+                        break;
+                    }
+                    blocks[i * BLOCKS + k / BLOCK] = blocks[i * BLOCKS + k / BLOCK] << 7 | c;
+                }
+                if (name != null && name.length() > CHARS && !exotic.get(i)) {
+                    for (int k = CHARS; k < name.length(); k++) {
+                        if (name.charAt(k) >= 127) {
+                            exotic.set(i);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Lower-cased character k plus one, 0 past the end, -1 outside ASCII
+        static int charAt(String name, int k) {
+            if (name == null || k >= name.length()) {
+                return 0;
+            }
+            int c = name.charAt(k);
+            if (c >= 127) {
+                return -1;
+            }
+            return (c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c) + 1;
+        }
+
+        // The first count characters, count <= BLOCK
+        long prefix(int position, int count) {
+            return blocks[position * BLOCKS] >>> 7 * (BLOCK - count);
+        }
+
+        // Characters from..from+count of the name at position, packed like the prefix
+        long chars(List<? extends Task> tasks, int position, int from, int count) {
+            long packed = 0;
+            int k = from;
+            int end = Math.min(CHARS, from + count);
+            while (k < end) {
+                // The rest of this block, or as much of it as is wanted
+                int offset = k % BLOCK;
+                int take = Math.min(BLOCK - offset, end - k);
+                long block = blocks[position * BLOCKS + k / BLOCK] >>> 7 * (BLOCK - offset - take);
+                packed = packed << 7 * take | block & (1L << 7 * take) - 1;
+                k += take;
+            }
+            if (k < from + count) {
+                // Past the prefix, only names that are still going are read again
+                String name = (blocks[position * BLOCKS + BLOCKS - 1] & 0x7F) == 0 ? null : tasks.get(position).getTaskName();
+                for (; k < from + count; k++) {
+                    packed = packed << 7 | charAt(name, k);
+                }
+            }
+            return packed;
+        }
+    }
+
+    // Sort order[from, to) by name from character depth on, the names there all share their first depth characters.
+    // The next BLOCK characters become each task's key, and runs still tied go on to the characters after those
+    private static void sortByName(List<? extends Task> tasks, NamePrefixes names, int[] order, int from, int to, int depth,
+                                   Column[] after) {
+        for (int i = from; i < to; i++) {
+            if (names.exotic.get(order[i])) {
+                sortByNormalisedName(tasks, order, from, to, after);
+                return;
+            }
+        }
+
+        int length = to - from;
+        long[] keys = new long[length];
+        int[] run = Arrays.copyOfRange(order, from, to);
+        for (int i = 0; i < length; i++) {
+            keys[i] = names.chars(tasks, run[i], depth, NamePrefixes.BLOCK);
+        }
+        sortByKey(keys, run);
+        System.arraycopy(run, 0, order, from, length);
+
+        int start = 0;
+        for (int i = 1; i <= length; i++) {
+            if (i == length || keys[i] != keys[start]) {
+                if (i - start > 1) {
+                    boolean ended = (keys[start] & 0x7F) == 0;
+                    if (!ended) {
+                        sortByName(tasks, names, order, from + start, from + i, depth + NamePrefixes.BLOCK, after);
+                    } else if (after.length > 0) {
+                        sortByNormalisedName(tasks, order, from + start, from + i, after);
+                    }
+                }
+                start = i;
+            }
+        }
+    }
+
+    // The general case, normalised names compared as Strings and then the columns after NAME
+    private static void sortByNormalisedName(List<? extends Task> tasks, int[] order, int from, int to, Column[] after) {
+        int length = to - from;
+        String[] names = new String[length];
+        Integer[] run = new Integer[length];
+        for (int i = 0; i < length; i++) {
+            names[i] = TaskIndex.normalise(tasks.get(order[from + i]).getTaskName());
+            run[i] = i;
+        }
+        Arrays.sort(run, (a, b) -> {
+            int c = names[a].compareTo(names[b]);
+            for (int i = 0; c == 0 && i < after.length; i++) {
+                c = after[i].compare(tasks.get(order[from + a]), tasks.get(order[from + b]));
+            }
+            return c;
+        });
+
+        int[] positions = new int[length];
+        for (int i = 0; i < length; i++) {
+            positions[i] = order[from + run[i]];
+        }
+        System.arraycopy(positions, 0, order, from, length);
+    }
+
+    private static int bitsFor(long max) {
+        return 64 - Long.numberOfLeadingZeros(Math.max(max, 0));
+    }
+
+    private static int[] values(List<? extends Task> tasks, Column column) {
+        int n = tasks.size();
+        int[] values = new int[n];
+        switch (column) {
+            case COMPLETION -> {
+                for (int i = 0; i < n; i++) {
+                    values[i] = tasks.get(i).getIsCompleted() ? 1 : 0;
+                }
+            }
+            case TYPE -> {
+                for (int i = 0; i < n; i++) {
+                    values[i] = hasDeadline(tasks.get(i)) ? 0 : 1;
+                }
+            }
+            case DEADLINE -> {
+                // Days since the earliest deadline, one past the latest for tasks without one
+                long first = Long.MAX_VALUE;
+                long last = Long.MIN_VALUE;
+                for (Task task : tasks) {
+                    if (hasDeadline(task)) {
+                        long day = task.getDeadline().toEpochDay();
+                        first = Math.min(first, day);
+                        last = Math.max(last, day);
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    Task task = tasks.get(i);
+                    values[i] = hasDeadline(task) ? (int) (task.getDeadline().toEpochDay() - first) : (int) (last - first + 1);
+                }
+            }
+            case PRIORITY -> {
+                for (int i = 0; i < n; i++) {
+                    values[i] = tasks.get(i).getPriority().getLevel();
+                }
+            }
+            case NAME -> throw new IllegalArgumentException("Names are compared, not packed");
+        }
+        return values;
+    }
+
+    // More columns than fit in a long, e.g. deadlines spread over centuries: compare the precomputed ints column by column
+    private static int[] orderUnpacked(int[][] values, int n) {
+        Integer[] positions = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = i;
+        }
+        Arrays.sort(positions, (a, b) -> {
+            for (int[] column : values) {
+                int c = Integer.compare(column[a], column[b]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return Integer.compare(a, b);
+        });
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = positions[i];
+        }
+        return order;
+    }
+}
@@ -0,0 +1,441 @@
+package com.example.chronopanthers;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.DoubleConsumer;
+
+// Bulk import and export of a user's tasks as CSV or JSON Lines.
+// Both directions stream one row at a time, import goes through COPY and export through a server-side cursor,
+// so memory use does not grow with the number of tasks. Supabase only, see isAvailable.
+public class TaskTransfer {
+    private static final String[] COLUMNS = {"task_name", "task_type", "priority", "is_completed", "due_date"};
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+    private static final int FETCH_SIZE = 1000;
+    private static final long OUTBOX_WAIT_MS = 10_000;
+
+    private static final JsonFactory json = new JsonFactory();
+
+    public record ImportResult(int imported, int skipped) {}
+
+    // One task as read from a file, already validated
+    record Row(String taskName, String taskType, Task.Priority priority, boolean completed, LocalDate dueDate) {}
+
+    private static boolean isJsonLines(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        return name.endsWith(".jsonl") || name.endsWith(".ndjson");
+    }
+
+    // COPY, the server-side cursor and tasks_archive only exist on Supabase. On the sqlite and memory backends the
+    // tasks live elsewhere, so importing or exporting there would read or write the wrong store
+    public static boolean isAvailable() {
+        return Repositories.tasks() instanceof PostgresRepository;
+    }
+
+    // Progress is reported as a fraction of the file read, from the calling thread
+    public static ImportResult importTasks(String username, Path file, DoubleConsumer progress) throws IOException, SQLException {
+        requireAvailable();
+        // Adds still queued locally would otherwise be missed by the open task uniqueness check
+        MutationOutbox.getInstance().awaitDrained(OUTBOX_WAIT_MS);
+
+        long fileSize = Math.max(Files.size(file), 1);
+        int skipped = 0;
+        int copied = 0;
+        int imported;
+
+        try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(file)));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(counter, StandardCharsets.UTF_8));
+             Connection conn = ConnectionPool.getInstance().getConnection()) {
+
+            conn.setAutoCommit(false);
+            try {
+                // Staged first so the rows can be checked against existing tasks in one statement
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("""
+                        CREATE TEMP TABLE task_import (
+                            task_name TEXT NOT NULL,
+                            task_type TEXT NOT NULL,
+                            priority TEXT NOT NULL,
+                            is_completed BOOLEAN NOT NULL,
+                            due_date DATE
+                        ) ON COMMIT DROP
+                    """);
+                }
+
+                CopyIn copy = conn.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn("COPY task_import (task_name, task_type, priority, is_completed, due_date) FROM STDIN WITH (FORMAT csv)");
+                try {
+                    StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 1024);
+                    RowReader rows = isJsonLines(file) ? new JsonLinesReader(reader) : new CsvReader(reader);
+
+                    Map<String, String> record;
+                    while ((record = rows.next()) != null) {
+                        Row row = toRow(record);
+                        if (row == null) {
+                            skipped++;
+                            continue;
+                        }
+
+                        appendCsv(buffer, row.taskName(), row.taskType(), row.priority().name(),
+                                String.valueOf(row.completed()), row.dueDate() == null ? null : row.dueDate().toString());
+                        copied++;
+
+                        if (buffer.length() >= COPY_BUFFER_CHARS) {
+                            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+                            copy.writeToCopy(bytes, 0, bytes.length);
+                            buffer.setLength(0);
+                            progress.accept(Math.min(1.0, (double) counter.getCount() / fileSize));
+                        }
+                    }
+
+                    byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+                    copy.writeToCopy(bytes, 0, bytes.length);
+                    copy.endCopy();
+                } finally {
+                    if (copy.isActive()) {
+                        copy.cancelCopy();
+                    }
+                }
+
+                // Open tasks are unique by name per user, the same rule taskExists enforces when adding one by one, also within the file
+                try (PreparedStatement insert = conn.prepareStatement("""
+                        INSERT INTO tasks (username, task_name, task_type, priority, is_completed, due_date)
+                        SELECT ?, i.task_name, i.task_type, i.priority, i.is_completed, i.due_date
+                        FROM (
+                            SELECT *, ROW_NUMBER() OVER (PARTITION BY LOWER(task_name), is_completed) AS copy_number
+                            FROM task_import
+                        ) i
+                        WHERE i.is_completed
+                           OR i.copy_number = 1 AND NOT EXISTS (
+                                SELECT 1 FROM tasks t
+                                WHERE t.username = ? AND LOWER(t.task_name) = LOWER(i.task_name) AND t.is_completed = false
+                           )
+                        """)) {
+                    insert.setString(1, username);
+                    insert.setString(2, username);
+                    imported = insert.executeUpdate();
+                }
+
+                conn.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+
+        progress.accept(1.0);
+        ConnectionPool.recordWrite(username);
+        LocalReplica.requestSync(username);
+        AnalyticsCache.invalidateTasks(username);
+        UserSession.invalidateTasks(username);
+
+        return new ImportResult(imported, skipped + copied - imported);
+    }
+
+    // Progress is reported as a fraction of the user's tasks written, from the calling thread
+    public static long exportTasks(String username, Path file, DoubleConsumer progress) throws IOException, SQLException {
+        requireAvailable();
+        // Tasks still queued locally would otherwise be missing from the file
+        MutationOutbox.getInstance().awaitDrained(OUTBOX_WAIT_MS);
+
+        boolean jsonLines = isJsonLines(file);
+        long written = 0;
+
+        try (Connection conn = ConnectionPool.getReadConnection(username);
+             BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+
+            boolean archive = TaskArchive.isAvailable();
+            long total;
+            try (PreparedStatement count = conn.prepareStatement("SELECT (SELECT COUNT(*) FROM tasks WHERE username = ?)" +
+                    (archive ? " + (SELECT COUNT(*) FROM tasks_archive WHERE username = ?)" : ""))) {
+                count.setString(1, username);
+                if (archive) {
+                    count.setString(2, username);
+                }
+                ResultSet rs = count.executeQuery();
+                rs.next();
+                total = Math.max(rs.getLong(1), 1);
+            }
+
+            // pgjdbc only fetches in batches of FETCH_SIZE when autocommit is off, otherwise it reads the whole result
+            conn.setAutoCommit(false);
+            // Archived tasks are exported too, so an import elsewhere gets the full history
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT task_name, task_type, priority, is_completed, due_date FROM (" +
+                    "SELECT task_name, task_type, priority, is_completed, due_date, created_at, id FROM tasks WHERE username = ? " +
+                    (archive ? "UNION ALL SELECT task_name, task_type, priority, is_completed, due_date, created_at, id FROM tasks_archive WHERE username = ?" : "") +
+                    ") t ORDER BY created_at, id")) {
+                pstmt.setFetchSize(FETCH_SIZE);
+                pstmt.setString(1, username);
+                if (archive) {
+                    pstmt.setString(2, username);
+                }
+
+                JsonGenerator generator = jsonLines ? json.createGenerator(writer).setRootValueSeparator(null) : null;
+                StringBuilder line = new StringBuilder();
+                if (!jsonLines) {
+                    appendCsv(line, COLUMNS);
+                    writer.append(line);
+                }
+
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    Date dueDate = rs.getDate("due_date");
+                    String[] values = {rs.getString("task_name"), rs.getString("task_type"), rs.getString("priority"),
+                            String.valueOf(rs.getBoolean("is_completed")), dueDate == null ? null : dueDate.toString()};
+
+                    if (jsonLines) {
+                        generator.writeStartObject();
+                        generator.writeStringField("task_name", values[0]);
+                        generator.writeStringField("task_type", values[1]);
+                        generator.writeStringField("priority", values[2]);
+                        generator.writeBooleanField("is_completed", rs.getBoolean("is_completed"));
+                        generator.writeStringField("due_date", values[4]);
+                        generator.writeEndObject();
+                        generator.writeRaw('\n');
+                    } else {
+                        line.setLength(0);
+                        appendCsv(line, values);
+                        writer.append(line);
+                    }
+
+                    written++;
+                    if (written % FETCH_SIZE == 0) {
+                        progress.accept(Math.min(1.0, (double) written / total));
+                    }
+                }
+
+                if (generator != null) {
+                    generator.flush();
+                }
+            } finally {
+                conn.rollback();
+            }
+        }
+
+        progress.accept(1.0);
+        return written;
+    }
+
+    private static void requireAvailable() throws SQLException {
+        if (!isAvailable()) {
+            throw new SQLException("Task import and export need the postgres backend, tasks are stored by "
+                    + Repositories.tasks().getClass().getSimpleName());
+        }
+    }
+
+    // Validate one record, null means it cannot be imported
+    static Row toRow(Map<String, String> record) {
+        String taskName = record.get("task_name");
+        if (taskName == null || taskName.isBlank()) {
+            return null;
+        }
+
+        try {
+            String dueText = record.get("due_date");
+            LocalDate dueDate = dueText == null || dueText.isBlank() ? null : LocalDate.parse(dueText.trim());
+
+            String typeText = record.get("task_type");
+            String taskType = typeText == null || typeText.isBlank()
+                    ? (dueDate == null ? "Normal" : "Deadline")
+                    : (typeText.trim().equalsIgnoreCase("Deadline") ? "Deadline" : "Normal");
+            if (taskType.equals("Deadline") && dueDate == null) {
+                return null;
+            }
+
+            String priorityText = record.get("priority");
+            Task.Priority priority = priorityText == null || priorityText.isBlank()
+                    ? Task.Priority.NONE
+                    : Task.Priority.valueOf(priorityText.trim().toUpperCase());
+
+            String completedText = record.get("is_completed");
+            boolean completed = completedText != null
+                    && (completedText.trim().equalsIgnoreCase("true") || completedText.trim().equals("1"));
+
+            return new Row(taskName.trim(), taskType, priority, completed, taskType.equals("Deadline") ? dueDate : null);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // One CSV line in the format COPY expects, a null value is written as an empty unquoted field
+    private static void appendCsv(StringBuilder out, String... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            out.append('"');
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                if (c == '"') {
+                    out.append('"');
+                }
+                out.append(c);
+            }
+            out.append('"');
+        }
+        out.append('\n');
+    }
+
+    interface RowReader {
+        // Column name to value for the next record, or null at the end of the file
+        Map<String, String> next() throws IOException;
+    }
+
+    // RFC 4180 CSV with a header row, quoted fields may contain commas, quotes and line breaks
+    static class CsvReader implements RowReader {
+        private final BufferedReader reader;
+        private List<String> header;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (header == null) {
+                header = readRecord();
+                if (header == null) {
+                    return null;
+                }
+                header.replaceAll(name -> name.trim().toLowerCase());
+            }
+
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isEmpty()); // blank line
+
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < header.size() && i < fields.size(); i++) {
+                record.put(header.get(i), fields.get(i));
+            }
+            return record;
+        }
+
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (peek != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+
+            if (!any) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    // One flat JSON object per line
+    static class JsonLinesReader implements RowReader {
+        private final JsonParser parser;
+
+        JsonLinesReader(Reader reader) throws IOException {
+            this.parser = json.createParser(reader);
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object on each line, found " + token);
+            }
+
+            Map<String, String> record = new HashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName().toLowerCase();
+                JsonToken value = parser.nextToken();
+                if (value.isStructStart()) {
+                    parser.skipChildren();
+                } else if (value != JsonToken.VALUE_NULL) {
+                    record.put(name, parser.getText());
+                }
+            }
+            return record;
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.chronopanthers;
+
+import java.util.*;
+
+// Substring search over task names that does not look at every name. Each lower-cased name is split into
+// three-character grams, and each gram maps to the sorted ids of the names containing it. A query only visits
+// the ids listed under its own grams, unless it is too short or too typo-tolerant for them to rule anything out.
+// Exact substring matches come first. Queries of four or more characters also match names within one typo
+// (two from eight characters, none past 64), found by approximate substring matching.
+// Ids are chosen by the caller: TaskIndex uses its slots, ofTasks uses list positions. Not thread-safe.
+public class TrigramIndex {
+    // distance is 0 for an exact substring match, position is where in the name the match starts
+    public record Match(int id, int distance, int position) {}
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final List<String> names = new ArrayList<>(); // lower-cased, by id, null when absent
+
+    // Ids containing one gram, kept sorted so adds and removes are a binary search and an arraycopy
+    private static class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] < id && size < ids.length) {
+                ids[size++] = id; // new slots only grow, so this is the usual case
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+
+    // An index of these tasks' names, the match ids are positions in the list
+    public static TrigramIndex ofTasks(List<? extends Task> tasks) {
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < tasks.size(); i++) {
+            index.add(i, tasks.get(i).getTaskName());
+        }
+        return index;
+    }
+
+    public void add(int id, String name) {
+        String normalised = TaskIndex.normalise(name);
+        while (names.size() <= id) {
+            names.add(null);
+        }
+        if (names.get(id) != null) {
+            remove(id);
+        }
+        names.set(id, normalised);
+        for (int i = 0; i + 3 <= normalised.length(); i++) {
+            postings.computeIfAbsent(gram(normalised, i), g -> new Postings()).add(id);
+        }
+    }
+
+    public void remove(int id) {
+        String name = id < names.size() ? names.get(id) : null;
+        if (name == null) {
+            return;
+        }
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            Postings ids = postings.get(gram(name, i));
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.size == 0) {
+                    postings.remove(gram(name, i));
+                }
+            }
+        }
+        names.set(id, null);
+    }
+
+    public void clear() {
+        postings.clear();
+        names.clear();
+    }
+
+    // Three UTF-16 chars packed into one key
+    private static long gram(String text, int at) {
+        return (long) text.charAt(at) << 32 | (long) text.charAt(at + 1) << 16 | text.charAt(at + 2);
+    }
+
+    // How many typos a query of this length tolerates
+    private static int typosAllowed(int length) {
+        return length < 4 || length > 64 ? 0 : length < 8 ? 1 : 2;
+    }
+
+    // True when every name matching next also matches previous, so next can be searched among previous's results:
+    // next extends previous and tolerates no more typos
+    public static boolean narrows(String previous, String next) {
+        String from = TaskIndex.normalise(previous);
+        String to = TaskIndex.normalise(next);
+        return !from.isEmpty() && to.contains(from) && typosAllowed(to.length()) <= typosAllowed(from.length());
+    }
+
+    // Names matching the query, best first: fewer typos, then matches nearer the start, then shorter names
+    public List<Match> search(String query) {
+        long[] ranked = rank(query, null);
+        List<Match> matches = new ArrayList<>(ranked.length);
+        for (long key : ranked) {
+            matches.add(new Match((int) key, (int) (key >>> 61), (int) (key >>> 49) & 0xFFF));
+        }
+        return matches;
+    }
+
+    // The ids alone, in the same order as search. When among is given only those ids are considered
+    public int[] searchIds(String query, int[] among) {
+        long[] ranked = rank(query, among);
+        int[] ids = new int[ranked.length];
+        for (int i = 0; i < ranked.length; i++) {
+            ids[i] = (int) ranked[i];
+        }
+        return ids;
+    }
+
+    // Each match packed into one long that sorts in rank order: distance, position, name length (both capped at 4095), id.
+    // The sign bit stays clear, so a signed sort of the longs is the rank order
+    private long[] rank(String query, int[] among) {
+        String needle = TaskIndex.normalise(query);
+        Keys keys = new Keys();
+        if (needle.isEmpty()) {
+            return new long[0];
+        }
+
+        Matcher matcher = new Matcher(needle);
+        if (among != null) {
+            for (int id : among) {
+                matcher.match(id, keys);
+            }
+        } else if (!collect(matcher, keys)) {
+            // Grams cannot narrow this query down, check every name
+            for (int id = 0; id < names.size(); id++) {
+                matcher.match(id, keys);
+            }
+        }
+
+        long[] ranked = Arrays.copyOf(keys.keys, keys.size);
+        Arrays.sort(ranked);
+        return ranked;
+    }
+
+    private static class Keys {
+        private long[] keys = new long[64];
+        private int size;
+
+        void add(int id, int distance, int position, int length) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = (long) distance << 61 | (long) Math.min(position, 0xFFF) << 49
+                    | (long) Math.min(length, 0xFFF) << 37 | id;
+        }
+    }
+
+    // A name matches when it contains the needle, or some part of it is within the allowed typos
+    private class Matcher {
+        final String needle;
+        final int typos;
+        final long[] masks;
+
+        Matcher(String needle) {
+            this.needle = needle;
+            this.typos = typosAllowed(needle.length());
+            this.masks = charMasks(needle);
+        }
+
+        void match(int id, Keys matches) {
+            String name = id < names.size() ? names.get(id) : null;
+            if (name == null) {
+                return;
+            }
+            int at = name.indexOf(needle);
+            if (at >= 0) {
+                matches.add(id, 0, at, name.length());
+            } else if (typos > 0) {
+                long best = closestSubstring(needle, masks, name);
+                if (best >>> 32 <= typos) {
+                    matches.add(id, (int) (best >>> 32), (int) best, name.length());
+                }
+            }
+        }
+    }
+
+    // Match only the names sharing enough of the needle's grams, false when no name could be ruled out that way
+    private boolean collect(Matcher matcher, Keys matches) {
+        String needle = matcher.needle;
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= needle.length(); i++) {
+            grams.add(gram(needle, i));
+        }
+
+        // An edit changes at most four of the needle's grams (swapping two letters touches four), so a name within
+        // k typos still has all but 4k of them. Below one there is nothing to filter on
+        int minShared = grams.size() - 4 * matcher.typos;
+        if (minShared < 1) {
+            return false;
+        }
+
+        // Count how many of the needle's grams each name has
+        int[] shared = new int[names.size()];
+        int[] candidates = new int[16];
+        int candidateCount = 0;
+        for (long g : grams) {
+            Postings ids = postings.get(g);
+            if (ids == null) {
+                continue;
+            }
+            for (int i = 0; i < ids.size; i++) {
+                int id = ids.ids[i];
+                if (shared[id]++ == 0) {
+                    if (candidateCount == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                    }
+                    candidates[candidateCount++] = id;
+                }
+            }
+        }
+
+        for (int c = 0; c < candidateCount; c++) {
+            int id = candidates[c];
+            if (shared[id] >= minShared) {
+                matcher.match(id, matches);
+            }
+        }
+        return true;
+    }
+
+    // Bit i is set in masks[c] when needle.charAt(i) == c, for the ASCII characters
+    private static long[] charMasks(String needle) {
+        long[] masks = new long[128];
+        for (int i = 0; i < needle.length(); i++) {
+            char c = needle.charAt(i);
+            if (c < 128) {
+                masks[c] |= 1L << i;
+            }
+        }
+        return masks;
+    }
+
+    private static long maskOf(char c, long[] masks, String needle) {
+        if (c < 128) {
+            return masks[c];
+        }
+        long mask = 0;
+        for (int i = 0; i < needle.length(); i++) {
+            if (needle.charAt(i) == c) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    // Fewest edits (insert, delete, replace, swap neighbours) turning needle into some substring of text, and roughly
+    // where that substring starts, packed as distance << 32 | start. This is Hyyro's bit-parallel form of the edit
+    // distance table: each column is held as 64-bit vectors of +1/-1 steps, so needles are limited to 64 characters
+    private static long closestSubstring(String needle, long[] masks, String text) {
+        int m = needle.length();
+        long last = 1L << (m - 1);
+        long vp = -1L;
+        long vn = 0;
+        long d0 = 0;
+        long prevEq = 0;
+        int score = m;
+        int best = m;
+        int bestEnd = 0;
+        for (int j = 0; j < text.length(); j++) {
+            long eq = maskOf(text.charAt(j), masks, needle);
+            long swapped = ((~d0 & eq) << 1) & prevEq;
+            d0 = (((eq & vp) + vp) ^ vp) | eq | vn | swapped;
+            long hp = vn | ~(d0 | vp);
+            long hn = d0 & vp;
+            if ((hp & last) != 0) {
+                score++;
+            } else if ((hn & last) != 0) {
+                score--;
+            }
+            long x = hp << 1; // no carry into row 0, a match may start anywhere in text
+            vn = x & d0;
+            vp = (hn << 1) | ~(x | d0);
+            prevEq = eq;
+            if (score < best) {
+                best = score;
+                bestEnd = j + 1;
+            }
+        }
+        return (long) best << 32 | Math.max(0, bestEnd - m);
+    }
+}
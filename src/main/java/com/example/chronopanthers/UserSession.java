@@ -0,0 +1,135 @@
+package com.example.chronopanthers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Data every page needs, fetched for the logged-in user all at once as soon as login succeeds.
+// The fetches run side by side on AsyncDatabase's virtual threads, and each page takes its result from here
+// instead of querying again. An entry is fetched again after a write that changes it, or once it is a minute old.
+public class UserSession {
+    private static final long MAX_AGE_MS = 60_000;
+
+    private static UserSession current;
+
+    private final String username;
+    private final Entry<int[]> sessionCounts;
+    private final Entry<TaskDashboard> taskDashboard;
+    private final Entry<List<Task>> userTasks;
+
+    private UserSession(String username) {
+        this.username = username;
+        this.sessionCounts = new Entry<>(() -> AsyncDatabase.getSessionCounts(username));
+        this.taskDashboard = new Entry<>(() -> AsyncDatabase.getTaskDashboard(username, TaskManager.PAGE_SIZE));
+        this.userTasks = new Entry<>(() -> AsyncDatabase.getUserTasks(username));
+    }
+
+    // Cached result of one fetch, a failed fetch is retried on the next get
+    private static class Entry<T> {
+        private final Supplier<CompletableFuture<T>> fetch;
+        private CompletableFuture<T> future;
+        private long fetchedAt;
+
+        Entry(Supplier<CompletableFuture<T>> fetch) {
+            this.fetch = fetch;
+        }
+
+        synchronized CompletableFuture<T> get() {
+            long now = System.currentTimeMillis();
+            if (future == null || future.isCompletedExceptionally() || now - fetchedAt > MAX_AGE_MS) {
+                future = fetch.get();
+                fetchedAt = now;
+            }
+            return future;
+        }
+
+        synchronized void invalidate() {
+            future = null;
+        }
+
+        synchronized void cancel() {
+            if (future != null) {
+                future.cancel(false);
+                future = null;
+            }
+        }
+    }
+
+    // Called once authentication succeeds, replaces the previous user's session
+    public static void start(String username) {
+        UserSession session = new UserSession(username);
+        synchronized (UserSession.class) {
+            if (current != null) {
+                current.cancel();
+            }
+            current = session;
+        }
+
+        session.sessionCounts.get();
+        session.taskDashboard.get();
+        session.userTasks.get();
+        // Productivity opens on the weekly view, its series land in the AnalyticsCache
+        LocalDate today = DayClock.today();
+        AsyncDatabase.getSeries(username, today.minusDays(6), today, Analytics.Granularity.DAY, Productivity.CHART_SERIES);
+    }
+
+    public static void end() {
+        synchronized (UserSession.class) {
+            if (current != null) {
+                current.cancel();
+                current = null;
+            }
+        }
+    }
+
+    // Every logout path goes through here, so nothing of the previous user survives into the next login
+    public static void logout() {
+        TimerManager.getInstance().reset();
+        end();
+        ChangeFeed.clearListeners();
+        DayClock.clearRolloverListener();
+    }
+
+    private void cancel() {
+        sessionCounts.cancel();
+        taskDashboard.cancel();
+        userTasks.cancel();
+    }
+
+    // The session for this user, or null when someone else (or nobody) is logged in
+    private static synchronized UserSession of(String username) {
+        return current != null && current.username.equals(username) ? current : null;
+    }
+
+    public static CompletableFuture<int[]> getSessionCounts(String username) {
+        UserSession session = of(username);
+        return session == null ? AsyncDatabase.getSessionCounts(username) : session.sessionCounts.get();
+    }
+
+    public static CompletableFuture<TaskDashboard> getTaskDashboard(String username) {
+        UserSession session = of(username);
+        return session == null ? AsyncDatabase.getTaskDashboard(username, TaskManager.PAGE_SIZE) : session.taskDashboard.get();
+    }
+
+    public static CompletableFuture<List<Task>> getUserTasks(String username) {
+        UserSession session = of(username);
+        return session == null ? AsyncDatabase.getUserTasks(username) : session.userTasks.get();
+    }
+
+    // Called after a write, so the next page to open fetches again
+    public static void invalidateTasks(String username) {
+        UserSession session = of(username);
+        if (session != null) {
+            session.taskDashboard.invalidate();
+            session.userTasks.invalidate();
+        }
+    }
+
+    public static void invalidateSessionCounts(String username) {
+        UserSession session = of(username);
+        if (session != null) {
+            session.sessionCounts.invalidate();
+        }
+    }
+}
@@ -3,6 +3,7 @@ module com.example.chronopanthers {
     requires javafx.fxml;
     requires java.desktop;
     requires java.sql;
+    requires org.postgresql.jdbc;
     requires io.github.cdimascio.dotenv.java;
 
     requires com.fasterxml.jackson.core;
@@ -0,0 +1,77 @@
+package com.example.chronopanthers;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Needs a scratch Postgres database in CHRONOPANTHERS_TEST_JDBC_URI (it is migrated), skipped without one.
+// Deliberately not the app's SUPABASE_JDBC_URI or .env, those point at the real database.
+class SchemaMigrationsTest {
+    private static final String TEST_JDBC_URI = System.getenv("CHRONOPANTHERS_TEST_JDBC_URI");
+
+    // Representative shapes of the hot queries, each must be answerable without a sequential scan
+    private static final List<String[]> HOT_QUERIES = List.of(
+            new String[]{"getUserTasks", "SELECT task_name FROM tasks WHERE username = 'x' AND is_completed = false ORDER BY created_at DESC"},
+            new String[]{"getUserTasksPage", "SELECT task_name FROM tasks WHERE username = 'x' AND is_completed = false AND (created_at, id) < (now(), 0) ORDER BY created_at DESC, id DESC LIMIT 101"},
+            new String[]{"taskExists", "SELECT 1 FROM tasks WHERE username = 'x' AND LOWER(task_name) = LOWER('y') AND is_completed = false LIMIT 1"},
+            new String[]{"updateTaskCompletion", "UPDATE tasks SET is_completed = true WHERE id = 1 AND username = 'x'"},
+            new String[]{"updateTask", "UPDATE tasks SET task_name = 'z' WHERE id = 1 AND username = 'x'"},
+            new String[]{"deleteTask", "DELETE FROM tasks WHERE id = 1 AND username = 'x'"},
+            new String[]{"updateTaskByName", "UPDATE tasks SET task_name = 'z' WHERE username = 'x' AND task_name = 'y' AND is_completed = false"},
+            new String[]{"getUserTaskCount", "SELECT COUNT(*) FROM tasks WHERE username = 'x'"},
+            new String[]{"getOverdueTasks", "SELECT task_name FROM tasks WHERE username = 'x' AND task_type = 'Deadline' AND due_date < CURRENT_DATE AND is_completed = false ORDER BY due_date"},
+            new String[]{"archiveCandidates", "SELECT id FROM tasks WHERE username = 'x' AND is_completed = true AND updated_at < now() - INTERVAL '90 days' ORDER BY updated_at LIMIT 1000"},
+            new String[]{"archiveBrowse", "SELECT task_name FROM tasks_archive WHERE username = 'x' ORDER BY updated_at DESC, id DESC"},
+            new String[]{"archiveCount", "SELECT COUNT(*) FROM tasks_archive WHERE username = 'x'"},
+            new String[]{"analyticsTasks", "SELECT date_trunc('day', updated_at)::date, COUNT(*) FROM tasks WHERE username = 'x' AND is_completed = TRUE AND updated_at >= CURRENT_DATE - 6 AND updated_at < CURRENT_DATE + 1 GROUP BY 1"},
+            new String[]{"analyticsSessions", "SELECT date_trunc('day', day)::date, SUM(session_count) FILTER (WHERE session_type = 'work') FROM session_daily_rollup WHERE username = 'x' AND day >= CURRENT_DATE - 6 AND day < CURRENT_DATE + 1 GROUP BY 1"},
+            new String[]{"replicaSessionSync", "SELECT id, session_type, duration, created_at FROM sessionslog WHERE username = 'x' AND id > 0"},
+            new String[]{"sessionHistoryYear", "SELECT session_type, SUM(duration) FROM sessionslog WHERE username = 'x' AND created_at >= '2025-01-01' AND created_at < '2026-01-01' GROUP BY 1"}
+    );
+
+    @BeforeAll
+    static void migrate() throws SQLException {
+        assumeTrue(TEST_JDBC_URI != null && !TEST_JDBC_URI.isBlank(), "CHRONOPANTHERS_TEST_JDBC_URI is not set");
+        try (Connection conn = DriverManager.getConnection(TEST_JDBC_URI)) {
+            SchemaMigrations.migrate(conn);
+        }
+    }
+
+    // EXPLAIN every hot query with sequential scans disabled, any Seq Scan left means the index it needs is missing
+    @Test
+    void hotQueriesUseAnIndex() throws SQLException {
+        List<String> offenders = new ArrayList<>();
+
+        try (Connection conn = DriverManager.getConnection(TEST_JDBC_URI)) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SET LOCAL enable_seqscan = off");
+                for (String[] query : HOT_QUERIES) {
+                    StringBuilder plan = new StringBuilder();
+                    try (ResultSet rs = stmt.executeQuery("EXPLAIN " + query[1])) {
+                        while (rs.next()) {
+                            plan.append(rs.getString(1)).append('\n');
+                        }
+                    }
+                    if (plan.indexOf("Seq Scan") >= 0) {
+                        offenders.add(query[0]);
+                    }
+                }
+            } finally {
+                conn.rollback();
+            }
+        }
+
+        assertEquals(List.of(), offenders, "Queries that cannot use an index");
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.chronopanthers;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Sorting 1M tasks per sort mode: List.sort with TaskComparator, the same without the name tie-break (how the modes
+// sorted before they had one), and TaskSortKeys.order. Run with
+//   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+//       -Dexec.args="-cp %classpath com.example.chronopanthers.TaskSortBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class TaskSortBenchmark {
+    private static final String[] WORDS = {"Report", "assignment", "math", "Physics", "essay", "lab", "reading", "project",
+            "review", "quiz"};
+
+    @Param({"DEADLINE_FIRST", "NAME", "PRIORITY", "NIL"})
+    public TaskComparator.SortMode mode;
+
+    @Param("1000000")
+    public int size;
+
+    private List<Task> tasks;
+    private List<Task> copy;
+    private TaskComparator comparator;
+    private TaskComparator untied;
+    private List<TaskSortKeys.Column> chain;
+
+    @Setup(Level.Trial)
+    public void createTasks() {
+        Random random = new Random(4);
+        tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + Integer.toString(random.nextInt(size), 36);
+            Task.Priority priority = Task.Priority.values()[random.nextInt(Task.Priority.values().length)];
+            Task task = random.nextBoolean()
+                    ? new DeadlineTask(name, LocalDate.of(2026, 1, 1).plusDays(random.nextInt(2000)), priority)
+                    : new NormalTask(name, priority);
+            if (random.nextInt(4) == 0) {
+                task.complete();
+            }
+            tasks.add(task);
+        }
+        chain = TaskComparator.chainOf(mode);
+        comparator = new TaskComparator(chain);
+        boolean tieBreak = chain.size() > 2 && chain.get(chain.size() - 1) == TaskSortKeys.Column.NAME;
+        untied = new TaskComparator(tieBreak ? chain.subList(0, chain.size() - 1) : chain);
+    }
+
+    @Setup(Level.Invocation)
+    public void copyTasks() {
+        copy = new ArrayList<>(tasks);
+    }
+
+    @Benchmark
+    public List<Task> comparator() {
+        copy.sort(comparator);
+        return copy;
+    }
+
+    @Benchmark
+    public List<Task> comparatorWithoutTieBreak() {
+        copy.sort(untied);
+        return copy;
+    }
+
+    @Benchmark
+    public int[] sortKeys() {
+        return TaskSortKeys.order(tasks, chain);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TaskSortBenchmark.class.getSimpleName()).build()).run();
+    }
+}
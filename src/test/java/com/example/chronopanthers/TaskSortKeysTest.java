@@ -0,0 +1,89 @@
+package com.example.chronopanthers;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.chronopanthers.TaskSortKeys.Column.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TaskSortKeysTest {
+    private static List<Task> sorted(List<Task> tasks, List<TaskSortKeys.Column> chain) {
+        List<Task> sorted = new ArrayList<>();
+        for (int position : TaskSortKeys.order(tasks, chain)) {
+            sorted.add(tasks.get(position));
+        }
+        return sorted;
+    }
+
+    private static void assertSameOrder(List<Task> tasks, List<TaskSortKeys.Column> chain) {
+        List<Task> expected = new ArrayList<>(tasks);
+        expected.sort(new TaskComparator(chain));
+        assertEquals(expected, sorted(tasks, chain), chain.toString());
+    }
+
+    // Names built from pieces that share long prefixes, differ only in case, or lower-case outside ASCII
+    private static List<Task> tasks(Random random, int count, String[] pieces, int days) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int k = random.nextInt(5); k > 0; k--) {
+                name.append(pieces[random.nextInt(pieces.length)]);
+            }
+            Task.Priority priority = Task.Priority.values()[random.nextInt(Task.Priority.values().length)];
+            Task task = random.nextBoolean()
+                    ? new DeadlineTask(name.toString(), LocalDate.of(2026, 1, 1).plusDays(random.nextInt(days)), priority)
+                    : new NormalTask(name.toString(), priority);
+            if (random.nextInt(4) == 0) {
+                task.complete();
+            }
+            task.setId(i + 1);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static void assertSameOrderForEveryChain(String[] pieces) {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            // Mostly short lists sorted by insertion, every tenth long enough for the radix passes
+            List<Task> tasks = tasks(random, 1 + random.nextInt(round % 10 == 0 ? 3000 : 120), pieces, round % 2 == 0 ? 3 : 400);
+            for (TaskComparator.SortMode mode : TaskComparator.SortMode.values()) {
+                assertSameOrder(tasks, TaskComparator.chainOf(mode));
+            }
+            assertSameOrder(tasks, List.of(NAME));
+            assertSameOrder(tasks, List.of(NAME, PRIORITY, COMPLETION));
+            assertSameOrder(tasks, List.of(TYPE, NAME, DEADLINE));
+        }
+    }
+
+    @Test
+    void asciiNamesMatchTheComparator() {
+        assertSameOrderForEveryChain(new String[]{"a", "A", "z", "Z", " ", "~", "0", "long common prefix here ",
+                "Long Common Prefix Here "});
+    }
+
+    @Test
+    void nonAsciiNamesMatchTheComparator() {
+        assertSameOrderForEveryChain(new String[]{"a", "A", "É", "é", "ß", "İ", "i", "z", "\u007f", "long common prefix here "});
+    }
+
+    @Test
+    void tiesKeepInputOrder() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Task task = new NormalTask(i % 2 == 0 ? "Same" : "same", Task.Priority.NONE);
+            task.setId(i + 1);
+            tasks.add(task);
+        }
+        assertEquals(tasks, sorted(tasks, TaskComparator.chainOf(TaskComparator.SortMode.PRIORITY)));
+    }
+
+    @Test
+    void emptyList() {
+        assertEquals(List.of(), sorted(List.of(), TaskComparator.chainOf(TaskComparator.SortMode.DEADLINE_FIRST)));
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.chronopanthers;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskTransferTest {
+    private static List<Map<String, String>> readCsv(String text) throws IOException {
+        return readAll(new TaskTransfer.CsvReader(new BufferedReader(new StringReader(text))));
+    }
+
+    private static List<Map<String, String>> readJsonLines(String text) throws IOException {
+        return readAll(new TaskTransfer.JsonLinesReader(new StringReader(text)));
+    }
+
+    private static List<Map<String, String>> readAll(TaskTransfer.RowReader reader) throws IOException {
+        List<Map<String, String>> records = new ArrayList<>();
+        Map<String, String> record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static Map<String, String> record(String... pairs) {
+        Map<String, String> record = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            record.put(pairs[i], pairs[i + 1]);
+        }
+        return record;
+    }
+
+    @Test
+    void csvQuotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        List<Map<String, String>> records = readCsv("task_name,priority\n\"a, b\",HIGH\n\"say \"\"hi\"\"\",LOW\n\"two\nlines\",NONE\n");
+
+        assertEquals(3, records.size());
+        assertEquals("a, b", records.get(0).get("task_name"));
+        assertEquals("say \"hi\"", records.get(1).get("task_name"));
+        assertEquals("two\nlines", records.get(2).get("task_name"));
+        assertEquals("NONE", records.get(2).get("priority"));
+    }
+
+    @Test
+    void csvCrlfLineEndingsAreStripped() throws IOException {
+        List<Map<String, String>> records = readCsv("task_name,priority\r\nfirst,HIGH\r\n\"second\",LOW\r\n");
+
+        assertEquals(List.of(record("task_name", "first", "priority", "HIGH"), record("task_name", "second", "priority", "LOW")), records);
+    }
+
+    @Test
+    void csvCarriageReturnInsideQuotesIsKept() throws IOException {
+        assertEquals("a\r\nb", readCsv("task_name\r\n\"a\r\nb\"\r\n").get(0).get("task_name"));
+    }
+
+    @Test
+    void csvQuoteAtEndOfFile() throws IOException {
+        assertEquals(List.of(record("task_name", "last")), readCsv("task_name\n\"last\""));
+    }
+
+    @Test
+    void csvEmptyQuotedFieldAndMissingTrailingNewline() throws IOException {
+        assertEquals(List.of(record("task_name", "x", "priority", "")), readCsv("task_name,priority\nx,\"\""));
+    }
+
+    @Test
+    void csvHeaderIsTrimmedAndLowerCased() throws IOException {
+        assertEquals(List.of(record("task_name", "x", "due_date", "2025-01-02")), readCsv(" Task_Name ,DUE_DATE\nx,2025-01-02\n"));
+    }
+
+    @Test
+    void csvBlankLinesAreSkipped() throws IOException {
+        assertEquals(List.of(record("task_name", "a"), record("task_name", "b")), readCsv("task_name\n\na\n\r\nb\n\n"));
+    }
+
+    @Test
+    void csvShortAndLongRowsOnlyFillKnownColumns() throws IOException {
+        List<Map<String, String>> records = readCsv("task_name,priority\nonly\nx,LOW,extra\n");
+
+        assertEquals(record("task_name", "only"), records.get(0));
+        assertEquals(record("task_name", "x", "priority", "LOW"), records.get(1));
+    }
+
+    @Test
+    void csvEmptyFileHasNoRecords() throws IOException {
+        assertEquals(List.of(), readCsv(""));
+        assertEquals(List.of(), readCsv("task_name\n"));
+    }
+
+    @Test
+    void jsonLinesSkipNullsAndNestedValues() throws IOException {
+        List<Map<String, String>> records = readJsonLines("{\"Task_Name\":\"a\",\"due_date\":null,\"tags\":[1,2],\"is_completed\":true}\n{\"task_name\":\"b\"}\n");
+
+        assertEquals(List.of(record("task_name", "a", "is_completed", "true"), record("task_name", "b")), records);
+    }
+
+    @Test
+    void jsonLinesRejectNonObjects() {
+        assertThrows(IOException.class, () -> readJsonLines("[\"a\"]\n"));
+    }
+
+    @Test
+    void rowNeedsAName() {
+        assertNull(TaskTransfer.toRow(record("priority", "HIGH")));
+        assertNull(TaskTransfer.toRow(record("task_name", "  ")));
+    }
+
+    @Test
+    void rowDefaults() {
+        TaskTransfer.Row row = TaskTransfer.toRow(record("task_name", "  read  "));
+
+        assertEquals(new TaskTransfer.Row("read", "Normal", Task.Priority.NONE, false, null), row);
+    }
+
+    @Test
+    void rowTypeFollowsTheDueDateWhenMissing() {
+        TaskTransfer.Row row = TaskTransfer.toRow(record("task_name", "x", "due_date", " 2025-03-04 "));
+
+        assertEquals("Deadline", row.taskType());
+        assertEquals(LocalDate.of(2025, 3, 4), row.dueDate());
+    }
+
+    @Test
+    void rowDeadlineWithoutDateIsRejected() {
+        assertNull(TaskTransfer.toRow(record("task_name", "x", "task_type", "deadline")));
+    }
+
+    @Test
+    void rowNormalTaskDropsItsDueDate() {
+        TaskTransfer.Row row = TaskTransfer.toRow(record("task_name", "x", "task_type", "Normal", "due_date", "2025-03-04"));
+
+        assertEquals("Normal", row.taskType());
+        assertNull(row.dueDate());
+    }
+
+    @Test
+    void rowUnknownTypeIsNormal() {
+        assertEquals("Normal", TaskTransfer.toRow(record("task_name", "x", "task_type", "chore")).taskType());
+    }
+
+    @Test
+    void rowPriorityIsCaseInsensitive() {
+        assertEquals(Task.Priority.CRITICAL, TaskTransfer.toRow(record("task_name", "x", "priority", " critical ")).priority());
+    }
+
+    @Test
+    void rowBadPriorityOrDateIsRejected() {
+        assertNull(TaskTransfer.toRow(record("task_name", "x", "priority", "urgent")));
+        assertNull(TaskTransfer.toRow(record("task_name", "x", "due_date", "04/03/2025")));
+    }
+
+    @Test
+    void rowCompletion() {
+        assertTrue(TaskTransfer.toRow(record("task_name", "x", "is_completed", "TRUE")).completed());
+        assertTrue(TaskTransfer.toRow(record("task_name", "x", "is_completed", " 1 ")).completed());
+        assertFalse(TaskTransfer.toRow(record("task_name", "x", "is_completed", "yes")).completed());
+        assertFalse(TaskTransfer.toRow(record("task_name", "x", "is_completed", "0")).completed());
+    }
+}
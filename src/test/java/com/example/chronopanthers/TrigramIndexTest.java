@@ -0,0 +1,140 @@
+package com.example.chronopanthers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+    private static TrigramIndex index(String... names) {
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < names.length; i++) {
+            index.add(i, names[i]);
+        }
+        return index;
+    }
+
+    private static List<Integer> ids(List<TrigramIndex.Match> matches) {
+        List<Integer> ids = new ArrayList<>();
+        for (TrigramIndex.Match match : matches) {
+            ids.add(match.id());
+        }
+        return ids;
+    }
+
+    @Test
+    void exactMatchBeforeTwoTypos() {
+        TrigramIndex index = index("write report", "wrxte repxrt");
+
+        assertEquals(List.of(new TrigramIndex.Match(0, 0, 0), new TrigramIndex.Match(1, 2, 0)), index.search("write report"));
+        assertArrayEquals(new int[]{0, 1}, index.searchIds("write report", null));
+    }
+
+    @Test
+    void fewerTyposThenEarlierThenShorter() {
+        TrigramIndex index = index("my long report draft", "report", "reprot", "the report", "rxpxrt report");
+
+        assertEquals(List.of(1, 3, 4, 0, 2), ids(index.search("report")));
+        assertEquals(1, index.search("report").get(4).distance());
+    }
+
+    @Test
+    void caseIsIgnored() {
+        assertEquals(List.of(0), ids(index("Weekly REVIEW").search("review")));
+    }
+
+    @Test
+    void shortQueriesAllowNoTypos() {
+        TrigramIndex index = index("gym", "gum");
+
+        assertEquals(List.of(0), ids(index.search("gym")));
+    }
+
+    @Test
+    void removedAndReplacedNamesAreNotFound() {
+        TrigramIndex index = index("laundry", "groceries");
+        index.remove(0);
+        index.add(1, "dishes");
+
+        assertEquals(List.of(), index.search("laundry"));
+        assertEquals(List.of(), index.search("groceries"));
+        assertEquals(List.of(1), ids(index.search("dishes")));
+    }
+
+    @Test
+    void searchAmongOnlyConsidersThoseIds() {
+        TrigramIndex index = index("essay one", "essay two", "essay three");
+
+        assertArrayEquals(new int[]{0, 2}, index.searchIds("essay", new int[]{2, 0}));
+        assertArrayEquals(new int[]{2}, index.searchIds("essay", new int[]{2}));
+    }
+
+    // Fewest edits (insert, delete, replace, swap neighbours) turning needle into some substring of text, by the full table
+    private static int closestSubstring(String needle, String text) {
+        int m = needle.length();
+        int n = text.length();
+        int[][] d = new int[m + 1][n + 1];
+        for (int i = 1; i <= m; i++) {
+            d[i][0] = i;
+            for (int j = 1; j <= n; j++) {
+                int cost = needle.charAt(i - 1) == text.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && needle.charAt(i - 1) == text.charAt(j - 2) && needle.charAt(i - 2) == text.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        int best = m;
+        for (int j = 0; j <= n; j++) {
+            best = Math.min(best, d[m][j]);
+        }
+        return best;
+    }
+
+    @Test
+    void randomNamesMatchTheFullTable() {
+        Random random = new Random(11);
+        String alphabet = "abcd ";
+        for (int round = 0; round < 300; round++) {
+            String[] names = new String[1 + random.nextInt(40)];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = randomText(random, alphabet, random.nextInt(16));
+            }
+            TrigramIndex index = index(names);
+
+            for (int q = 0; q < 10; q++) {
+                String query = randomText(random, alphabet, 1 + random.nextInt(10));
+                int typos = query.length() < 4 ? 0 : query.length() < 8 ? 1 : 2;
+
+                List<TrigramIndex.Match> matches = index.search(query);
+                int[] expected = new int[names.length];
+                int expectedCount = 0;
+                for (int i = 0; i < names.length; i++) {
+                    expected[i] = names[i].contains(query) ? 0 : typos > 0 ? closestSubstring(query, names[i]) : Integer.MAX_VALUE;
+                    if (expected[i] <= typos) {
+                        expectedCount++;
+                    }
+                }
+                assertEquals(expectedCount, matches.size(), query);
+
+                int previous = 0;
+                for (TrigramIndex.Match match : matches) {
+                    assertEquals(expected[match.id()], match.distance(), query + " in " + names[match.id()]);
+                    assertTrue(match.distance() >= previous, "ranked by distance");
+                    previous = match.distance();
+                }
+            }
+        }
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}